@@ -0,0 +1,61 @@
+package com.adventofcode;
+
+import com.adventofcode.problems.AdventOfCode;
+import com.adventofcode.problems.JoltageConfigurationProblem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steady state benchmark of every registered day.
+ * Main.timeFunction only times a single cold call which mostly measures class loading and JIT warmup,
+ * here JMH warms each solver up in a forked JVM before measuring the per operation time.
+ * Run with the gc profiler (configured in build.gradle) to also get the allocation rate of each part.
+ *
+ * The input file follows the same rules as Main, an empty filename uses the default input of the day.
+ * Day 10 keeps its answers across runs in a solution cache, which is turned off here so every operation solves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class AdventOfCodeBenchmark {
+
+    @Param({"1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12"})
+    int day;
+
+    @Param({""})
+    String filename;
+
+    @Param({"false"})
+    boolean useExample;
+
+    AdventOfCode<?> problem;
+
+    @Setup
+    public void setup() {
+        problem = Main.AOC_DAY_TO_PROBLEM(filename.isEmpty() ? null : filename, useExample).get(day);
+        if (problem instanceof JoltageConfigurationProblem joltage) {
+            joltage.setCacheCapacity(0);
+        }
+        problem.getParsedInput();
+    }
+
+    // Parse stage on its own, the solve benchmarks below reuse the cached input
+    @Benchmark
+    public Object parse() {
+        return problem.parseInput();
+    }
+
+    @Benchmark
+    public Number solvePart1() {
+        return problem.solvePart1();
+    }
+
+    @Benchmark
+    public Number solvePart2() {
+        return problem.solvePart2();
+    }
+}
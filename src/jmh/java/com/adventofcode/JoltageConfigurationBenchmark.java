@@ -0,0 +1,47 @@
+package com.adventofcode;
+
+import com.adventofcode.problems.JoltageConfigurationProblem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Day 10 part 2 with the ojalgo ILP against the dedicated integer search, on the same parsed machines.
+ * Both run on one thread so the numbers compare the per machine latency of the two solvers, not the thread pool,
+ * and without the solution cache, which would answer every iteration after the first.
+ *
+ * Run with `./gradlew jmh -Pjmh.includes=JoltageConfigurationBenchmark`
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class JoltageConfigurationBenchmark {
+
+    @Param({"ILP", "INTEGER_SEARCH"})
+    JoltageConfigurationProblem.Part2Strategy strategy;
+
+    @Param({""})
+    String filename;
+
+    @Param({"false"})
+    boolean useExample;
+
+    JoltageConfigurationProblem problem;
+
+    @Setup
+    public void setup() {
+        problem = new JoltageConfigurationProblem(Main.useDefaultIfNull(filename.isEmpty() ? null : filename, "dfs.txt"), useExample);
+        problem.setPart2Strategy(strategy);
+        problem.setPart2Threads(1);
+        problem.setCacheCapacity(0);
+        problem.getParsedInput();
+    }
+
+    @Benchmark
+    public Number solvePart2() {
+        return problem.solvePart2();
+    }
+}
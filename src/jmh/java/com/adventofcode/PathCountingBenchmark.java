@@ -0,0 +1,86 @@
+package com.adventofcode;
+
+import com.adventofcode.problems.DirectedGraph;
+import com.adventofcode.utilities.CompiledGraph;
+import com.adventofcode.utilities.LayeredPathCounts;
+import com.adventofcode.utilities.PathCounter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Path counting with each overflow handling on a generated layered DAG: layers of `width` nodes where every node
+ * has `degree` edges into the next layer, plus a source feeding the first layer and a sink fed by the last.
+ * With 16 layers the counts fit in a long, so the checked modes stay on their long fast path. With 64 layers they
+ * overflow and BIG_INTEGER / MODULO pay for the promotion, while WRAP returns a wrong count at the same speed.
+ * LAYERED only splits layers of at least LayeredPathCounts.DEFAULT_MIN_PARALLEL_WIDTH nodes across the common pool,
+ * at width 1000 it falls back to the sequential passes and should match SEQUENTIAL. The layers are built once in the
+ * setup, as day 11 does, so only the passes are timed.
+ *
+ * Run with `./gradlew jmh -Pjmh.includes=PathCountingBenchmark`
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PathCountingBenchmark {
+
+    @Param({"WRAP", "BIG_INTEGER", "MODULO"})
+    PathCounter.Overflow overflow;
+
+    @Param({"16", "64"})
+    int layers;
+
+    @Param({"1000", "100000"})
+    int width;
+
+    @Param({"4"})
+    int degree;
+
+    @Param({"SEQUENTIAL", "LAYERED"})
+    DirectedGraph.PassStrategy passStrategy;
+
+    CompiledGraph graph;
+    LayeredPathCounts layerCounts;
+    int source;
+    int sink;
+
+    @Setup
+    public void setup() {
+        var random = new Random(42);
+        var builder = new CompiledGraph.Builder();
+        source = builder.intern("source");
+        var first = source + 1;
+        for (var node = 0; node < layers * width; node++) {
+            builder.intern("n" + node);
+        }
+        sink = builder.intern("sink");
+        for (var node = 0; node < width; node++) {
+            builder.addEdge(source, first + node);
+            builder.addEdge(first + (layers - 1) * width + node, sink);
+        }
+        for (var layer = 0; layer < layers - 1; layer++) {
+            for (var node = 0; node < width; node++) {
+                for (var edge = 0; edge < degree; edge++) {
+                    builder.addEdge(first + layer * width + node, first + (layer + 1) * width + random.nextInt(width));
+                }
+            }
+        }
+        graph = builder.build();
+        layerCounts = new LayeredPathCounts(graph, ForkJoinPool.commonPool());
+    }
+
+    // A new counter every time so each operation runs the passes instead of reading cached ones
+    @Benchmark
+    public Number countPaths() {
+        var counter = new PathCounter(graph, 1_000_000_007L);
+        if (passStrategy == DirectedGraph.PassStrategy.LAYERED) {
+            counter.setLayers(layerCounts);
+        }
+        return counter.countPathsThrough(source, sink, new int[0], true, overflow);
+    }
+}
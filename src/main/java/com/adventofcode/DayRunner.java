@@ -0,0 +1,127 @@
+package com.adventofcode;
+
+import com.adventofcode.problems.AdventOfCode;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Runs a set of days concurrently, one task per day on the given executor.
+ * Each stage (parse, part 1, part 2) is measured on the thread running it: wall time, thread CPU time and the bytes
+ * the thread allocated. Work a solver hands to other threads is not included in the CPU and allocation numbers of
+ * that day, only in its wall time. That is day 9 part 2 (pair search on the common pool), day 10 part 2 (machines on
+ * the common pool or the pool given by setPart2Threads), day 11 (wide layers on the common pool) and day 12 (its own
+ * thread pool).
+ */
+public class DayRunner {
+
+    static class Measurement {
+        long wallNs;
+        long cpuNs = -1;
+        long allocatedBytes = -1;
+        Object answer;
+    }
+
+    static class DayReport {
+        int day;
+        Measurement parse;
+        Measurement part1;
+        Measurement part2;
+        Throwable error;
+
+        DayReport(int day) {
+            this.day = day;
+        }
+    }
+
+    private final ExecutorService executor;
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    public DayRunner(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public List<DayReport> run(Map<Integer, AdventOfCode<?>> problems, List<Integer> days) throws InterruptedException {
+        var futures = new ArrayList<Future<DayReport>>();
+        for (var day : days) {
+            var problem = problems.get(day);
+            if (problem == null) {
+                throw new IllegalArgumentException("No problem registered for day " + day);
+            }
+            futures.add(executor.submit(() -> runDay(day, problem)));
+        }
+
+        var reports = new ArrayList<DayReport>();
+        for (var future : futures) {
+            try {
+                reports.add(future.get());
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+        }
+        return reports;
+    }
+
+    private DayReport runDay(int day, AdventOfCode<?> problem) {
+        var report = new DayReport(day);
+        try {
+            report.parse = measure(problem::getParsedInput);
+            report.part1 = measure(problem::solvePart1);
+            report.part2 = measure(problem::solvePart2);
+        } catch (Throwable e) {
+            report.error = e;
+        }
+        return report;
+    }
+
+    private Measurement measure(Supplier<?> stage) {
+        var measurement = new Measurement();
+        var allocationSupported = threadMXBean instanceof com.sun.management.ThreadMXBean;
+        var cpuSupported = threadMXBean.isCurrentThreadCpuTimeSupported();
+
+        long allocatedStart = allocationSupported ? ((com.sun.management.ThreadMXBean) threadMXBean).getCurrentThreadAllocatedBytes() : 0;
+        long cpuStart = cpuSupported ? threadMXBean.getCurrentThreadCpuTime() : 0;
+        long wallStart = System.nanoTime();
+
+        measurement.answer = stage.get();
+
+        measurement.wallNs = System.nanoTime() - wallStart;
+        if (cpuSupported) {
+            measurement.cpuNs = threadMXBean.getCurrentThreadCpuTime() - cpuStart;
+        }
+        if (allocationSupported) {
+            measurement.allocatedBytes = ((com.sun.management.ThreadMXBean) threadMXBean).getCurrentThreadAllocatedBytes() - allocatedStart;
+        }
+        return measurement;
+    }
+
+    public static void printSummary(List<DayReport> reports, long totalWallNs) {
+        var format = "%-4s %-6s %12s %12s %14s  %s%n";
+        System.out.printf(format, "Day", "Stage", "Wall (ms)", "CPU (ms)", "Alloc (MB)", "Answer");
+        for (var report : reports) {
+            if (report.error != null) {
+                System.out.printf("%-4d failed: %s%n", report.day, report.error);
+                continue;
+            }
+            printRow(format, report.day, "parse", report.parse, "");
+            printRow(format, report.day, "part1", report.part1, String.valueOf(report.part1.answer));
+            printRow(format, report.day, "part2", report.part2, String.valueOf(report.part2.answer));
+        }
+        System.out.printf("Total wall time: %.3fms%n", totalWallNs / 1_000_000.0);
+    }
+
+    private static void printRow(String format, int day, String stage, Measurement measurement, String answer) {
+        System.out.printf(format, day, stage,
+                String.format("%.3f", measurement.wallNs / 1_000_000.0),
+                measurement.cpuNs < 0 ? "n/a" : String.format("%.3f", measurement.cpuNs / 1_000_000.0),
+                measurement.allocatedBytes < 0 ? "n/a" : String.format("%.3f", measurement.allocatedBytes / (1024.0 * 1024.0)),
+                answer);
+    }
+}
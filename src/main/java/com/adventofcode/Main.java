@@ -2,8 +2,11 @@ package com.adventofcode;
 
 import com.adventofcode.problems.*;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 
 public class Main {
@@ -12,8 +15,8 @@ public class Main {
         return name != null ? name : defaultName;
     }
 
-    static Map<Integer, AdventOfCode> AOC_DAY_TO_PROBLEM(String filename, boolean useExample) {
-        var AdventOfCodeMap = new HashMap<Integer, AdventOfCode>();
+    static Map<Integer, AdventOfCode<?>> AOC_DAY_TO_PROBLEM(String filename, boolean useExample) {
+        var AdventOfCodeMap = new HashMap<Integer, AdventOfCode<?>>();
         AdventOfCodeMap.put(1, new RotationLockProblem(useDefaultIfNull(filename, "rotationlock.txt"), useExample));
         AdventOfCodeMap.put(2, new RepeatingNumbersProblem(useDefaultIfNull(filename,"repeatingnumbers.txt"), useExample));
         AdventOfCodeMap.put(3, new SlidingTwoMaximumNumbers(useDefaultIfNull(filename, "slidingtoptwonumbers.txt"), useExample));
@@ -39,15 +42,44 @@ public class Main {
         return result;
     }
 
+    // "all" or a comma separated list of days such as "1,5,8"
+    static List<Integer> parseDays(String days) {
+        if (days.equalsIgnoreCase("all")) {
+            return AOC_DAY_TO_PROBLEM(null, false).keySet().stream().sorted().toList();
+        }
+        return Arrays.stream(days.split(",")).map(String::trim).map(Integer::parseInt).toList();
+    }
+
+    static void runDays(List<Integer> days, String filename, boolean useExample, int threads) throws InterruptedException {
+        var executor = Executors.newFixedThreadPool(threads);
+        try {
+            long start = System.nanoTime();
+            var reports = new DayRunner(executor).run(AOC_DAY_TO_PROBLEM(filename, useExample), days);
+            DayRunner.printSummary(reports, System.nanoTime() - start);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     public static void main(String[] args) throws Exception {
-        var day = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        var dayArgument = args.length > 0 ? args[0] : "1";
         var filename = args.length > 1 ? args[1] : null;
         var useExample = args.length > 2 && Boolean.parseBoolean(args[2]);
 
-        day = 12;
-        useExample = true;
+        if (dayArgument.equalsIgnoreCase("all") || dayArgument.contains(",")) {
+            var threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+            runDays(parseDays(dayArgument), filename, useExample, threads);
+            return;
+        }
+
+        var day = Integer.parseInt(dayArgument);
         var problem = AOC_DAY_TO_PROBLEM(filename, useExample).get(day);
 
+        // Parse up front so the part timings below only measure solving
+        problem.getParsedInput();
+        System.out.println("Parse:\t" + (problem.getParseTimeNs() / 1_000_000.0) + "ms");
+        System.out.println();
+
         System.out.println("Part1:\t" + timeFunction((t) -> problem.solvePart1()));
         System.out.println();
         System.out.println("Part2:\t" + timeFunction((t) -> problem.solvePart2()));
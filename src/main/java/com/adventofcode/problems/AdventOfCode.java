@@ -1,18 +1,95 @@
 package com.adventofcode.problems;
 
+import com.adventofcode.utilities.InputCursor;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
-public abstract class AdventOfCode {
+/**
+ * Base class of every day.
+ * Parsing and solving are separate stages, the parsed input is loaded once per problem instance and shared by
+ * both parts so repeated calls only pay for the solve. Solvers must treat the parsed input as read only.
+ *
+ * @param <T> the parsed representation of the input file
+ */
+public abstract class AdventOfCode<T> {
     String filename;
+    // Set when the filename given is a file on disk, otherwise the input is a classpath resource under /data/
+    Path inputPath;
+
+    private T parsedInput;
+    private long parseTimeNs;
+
     public AdventOfCode(String filename, boolean useExample) {
         var nameAndExtension = filename.split("\\.");
         assert nameAndExtension.length == 2;
         this.filename = "/data/" + nameAndExtension[0] + (useExample ? "example." : ".") + nameAndExtension[1];
+        if (Files.isRegularFile(Path.of(filename))) {
+            this.inputPath = Path.of(filename);
+        }
     }
 
     protected InputStream ReadFile() {
+        if (inputPath != null) {
+            try {
+                return Files.newInputStream(inputPath);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
         return AdventOfCode.class.getResourceAsStream(filename);
     }
+
+    // Opens the input as a byte cursor, files on disk (including unpacked classpath resources) are memory mapped
+    protected InputCursor OpenInput() throws IOException {
+        if (inputPath != null) {
+            return InputCursor.map(inputPath);
+        }
+        var url = AdventOfCode.class.getResource(filename);
+        if (url == null) throw new FileNotFoundException("Resource not found");
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return InputCursor.map(Path.of(url.toURI()));
+            } catch (URISyntaxException e) {
+                throw new IOException(e);
+            }
+        }
+        try (InputStream in = url.openStream()) {
+            return InputCursor.read(in);
+        }
+    }
+
+    // Streams the input line by line without loading the whole file, CR, LF and CRLF line endings are all accepted
+    protected Iterable<String> ReadLines() throws IOException {
+        return OpenInput().lines();
+    }
+
+    // Reads and parses the input file, called once per instance through getParsedInput()
+    protected abstract T LoadTextFile();
+
+    // Parses the input without touching the cache, this is what the parse stage benchmarks call
+    public T parseInput() {
+        return LoadTextFile();
+    }
+
+    public synchronized T getParsedInput() {
+        if (parsedInput == null) {
+            long start = System.nanoTime();
+            parsedInput = parseInput();
+            parseTimeNs = System.nanoTime() - start;
+        }
+        return parsedInput;
+    }
+
+    // Time spent in the first getParsedInput() call, 0 if the input has not been parsed yet
+    public long getParseTimeNs() {
+        return parseTimeNs;
+    }
+
     public abstract Number solvePart1();
     public abstract Number solvePart2();
 }
@@ -1,13 +1,10 @@
 package com.adventofcode.problems;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 
-public class BeamSplit extends AdventOfCode {
+public class BeamSplit extends AdventOfCode<ArrayList<ArrayList<Integer>>> {
     public BeamSplit(String filename, boolean useExample) {
         super(filename, useExample);
     }
@@ -26,15 +23,10 @@ public class BeamSplit extends AdventOfCode {
         }
     }
     boolean useExample = false;
-    private ArrayList<ArrayList<Integer>> LoadTextFile() {
-        try (InputStream in = ReadFile()) {
-            if (in == null) throw new FileNotFoundException("Resource not found");
-
-            var content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
-
-            var rangeList = new ArrayList<RangesProblem.Range>();
-            var inputsToCheck = new ArrayList<Long>();
-            var lines = content.split("\r\n");
+    @Override
+    protected ArrayList<ArrayList<Integer>> LoadTextFile() {
+        try {
+            var lines = ReadLines();
             var fullMap = new ArrayList<ArrayList<Integer>>();
             for (var line : lines) {
                 var splitters = new ArrayList<Integer>();
@@ -95,8 +87,9 @@ public class BeamSplit extends AdventOfCode {
 
     // Answer is 1658
     public Integer solvePart1() {
-        var map = LoadTextFile();
+        var map = getParsedInput();
         var rayPositions = new ArrayList<Integer>();
+        beamSplits = 0;
 
         rayPositions.add(map.get(0).get(0)); // find the position of the S
         for(var i = 1; i < map.size(); i++) {
@@ -107,7 +100,7 @@ public class BeamSplit extends AdventOfCode {
 
     // Answer is 53916299384254
     public Long solvePart2() {
-        var map = LoadTextFile();
+        var map = getParsedInput();
         var rayPositions = new ArrayList<BeamTimelines>();
 
         rayPositions.add(new BeamTimelines(1, map.get(0).get(0))); // find the position of the S
@@ -1,112 +1,139 @@
 package com.adventofcode.problems;
 
-import java.io.FileNotFoundException;
+import com.adventofcode.utilities.CompiledGraph;
+import com.adventofcode.utilities.LayeredPathCounts;
+import com.adventofcode.utilities.PathCounter;
+
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-import java.util.*;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
 
+// The number of paths from a node is the sum of the paths of the nodes it points to, so the counts are summed up
+// backwards from the end node. Walking the nodes in reverse topological order means every node's outputs are
+// already counted when the node is reached, see CompiledGraph. A cyclic input is condensed first, see PathCounter
+public class DirectedGraph extends AdventOfCode<DirectedGraph.Graph> {
+    private static final boolean DEBUG = false;
 
-// TODO invert the tree and keep track of the number of possibilities summing the up backwards
-// If we have already seen a node we save the value of the path for future reference dynamic programming
-public class DirectedGraph extends AdventOfCode {
     class Graph {
-        HashMap<String, GraphNode> allNodes = new HashMap<>();
-        HashMap<String, Long> nodeToPath = new HashMap<>();
+        CompiledGraph compiled;
+        // Built by the first LAYERED solve and reused by the next ones, null while the graph has a cycle as only the
+        // DAGs it is condensed into can be layered
+        private LayeredPathCounts layers;
 
-        public void addNode(GraphNode node) {
-            allNodes.put(node.name, node);
+        Graph(CompiledGraph compiled) {
+            this.compiled = compiled;
         }
 
-        public void buildGraph() {
-            for (var node: allNodes.values()) {
-                node.setOutputNodes(node.outputs.stream().map(s -> allNodes.get(s)).toList());
+        synchronized LayeredPathCounts layers() {
+            if (layers == null && compiled.isAcyclic()) {
+                layers = new LayeredPathCounts(compiled, ForkJoinPool.commonPool());
             }
+            return layers;
         }
 
-        public long findPaths(String startName, String endName) {
-            var startNode = allNodes.get(startName);
-            var result = iteratePaths(startNode, endName);
-            nodeToPath.clear();
-            return result;
-        }
-
-        private long iteratePaths(GraphNode currentNode, String endName) {
-            if (Objects.equals(currentNode.name, endName)) {
-                return 1L;
+        // A counter shares its passes between the queries of one solve, each solve starts a new one so repeated
+        // solves (e.g. in the benchmarks) count again instead of reading cached passes. Only the layers are kept
+        PathCounter newPathCounter() {
+            var counter = modulus == 0 ? new PathCounter(compiled) : new PathCounter(compiled, modulus);
+            if (passStrategy == PassStrategy.LAYERED) {
+                var layers = layers();
+                if (layers != null) {
+                    counter.setLayers(layers);
+                } else {
+                    counter.setPool(ForkJoinPool.commonPool());
+                }
             }
+            return counter;
+        }
 
-            if (nodeToPath.containsKey(currentNode.name)) {
-                return nodeToPath.get(currentNode.name);
-            }
+        public Number findPaths(String startName, String endName) {
+            return findPathsThrough(startName, endName, List.of(), true);
+        }
 
-            var pathCount = currentNode.outputNodes.stream().map(node -> iteratePaths(node, endName)).reduce(0L, Long::sum);
-            nodeToPath.put(currentNode.name, pathCount);
-            return pathCount;
+        // Paths that visit all the waypoints, in the listed order or in any order
+        public Number findPathsThrough(String startName, String endName, List<String> waypoints, boolean ordered) {
+            return newPathCounter().countPathsThrough(startName, endName, waypoints, ordered, overflow);
         }
     }
 
-    class GraphNode {
-
-        String name;
+    // SEQUENTIAL walks the topological order on one thread. LAYERED splits every wide enough layer of the DAG across
+    // the common pool and stays sequential when no layer is wide enough, see LayeredPathCounts
+    public enum PassStrategy {
+        SEQUENTIAL,
+        LAYERED
+    }
 
-        List<String> outputs;
-        List<GraphNode> outputNodes;
+    private PassStrategy passStrategy = PassStrategy.LAYERED;
 
-        GraphNode(String name, List<String> outputs) {
-            this.name = name;
-            this.outputs = outputs;
-        }
-
-        public void setOutputNodes(List<GraphNode> node) {
-            this.outputNodes = node;
-        }
+    // Path counts are exact by default, long arithmetic with overflow checks that switches to BigInteger when needed
+    private PathCounter.Overflow overflow = PathCounter.Overflow.BIG_INTEGER;
+    // Prime used by Overflow.MODULO, 0 when none was given
+    private long modulus = 0;
 
+    public void setPassStrategy(PassStrategy passStrategy) {
+        this.passStrategy = passStrategy;
+    }
 
+    public void setOverflow(PathCounter.Overflow overflow) {
+        this.overflow = overflow;
+    }
 
+    // Counts that overflow a long are then reported modulo the prime
+    public void setModulus(long prime) {
+        this.modulus = prime;
+        this.overflow = PathCounter.Overflow.MODULO;
     }
 
     public DirectedGraph(String filename, boolean useExample) {
         super(filename, useExample);
     }
 
-    private Graph LoadTextFile() {
-        try (InputStream in = ReadFile()) {
-            if (in == null) throw new FileNotFoundException("Resource not found");
-
-            var content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
-            var graph = new Graph();
-
-            Arrays.stream(content.split("\r\n")).forEach(s -> {
-                var str = s.split(": ");
-                var outputs = Arrays.stream(str[1].split(" ")).toList();
-                graph.addNode(new GraphNode(str[0], outputs));
-            });
-            graph.addNode(new GraphNode("out", new ArrayList<>()));
-            graph.buildGraph();
-            return graph;
+    // Each line is "name: output output ...", node names are interned to ints as they are read
+    @Override
+    protected Graph LoadTextFile() {
+        try {
+            var builder = new CompiledGraph.Builder();
+
+            for (var line : ReadLines()) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                var str = line.split(": ");
+                var from = builder.intern(str[0]);
+                for (var output : str[1].split(" ")) {
+                    builder.addEdge(from, builder.intern(output));
+                }
+            }
+            builder.intern("out");
+            var compiled = builder.build();
+            if (DEBUG && !compiled.isAcyclic()) {
+                var cycles = compiled.cycles();
+                System.out.println("Graph has " + cycles.size() + " cycles, e.g. through " + cycles.get(0));
+            }
+            return new Graph(compiled);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    // The node names of every cycle in the input, paths that can go around one and still reach their end are counted
+    // as infinite, see PathCounter
+    public List<List<String>> getCycles() {
+        return getParsedInput().compiled.cycles();
+    }
+
     @Override
     public Number solvePart1() {
-        var graph = LoadTextFile();
+        var graph = getParsedInput();
         return graph.findPaths("you", "out");
     }
 
+    // Paths through both dac and fft, whichever comes first: svr -> dac -> fft -> out plus svr -> fft -> dac -> out.
+    // One forward pass from svr and from the first waypoint and one backward pass to out answer it
     @Override
     public Number solvePart2() {
-        var graph = LoadTextFile();
-        var toDAC = graph.findPaths("svr", "dac");
-        var toFFT = graph.findPaths("svr", "fft");
-        var DACtoFFT = graph.findPaths("dac", "fft");
-        var FFTtoDAC = graph.findPaths("fft", "dac");
-        var DACtoOut = graph.findPaths("dac", "out");
-        var FFTtoOut = graph.findPaths("fft", "out");
-        var dacFirst = toDAC * DACtoFFT * FFTtoOut;
-        var fftFirst = toFFT * FFTtoDAC * DACtoOut;
-        return dacFirst + fftFirst;
+        var graph = getParsedInput();
+        return graph.findPathsThrough("svr", "out", List.of("dac", "fft"), false);
     }
 }
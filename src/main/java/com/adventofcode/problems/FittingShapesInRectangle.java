@@ -8,12 +8,9 @@ import com.google.ortools.linearsolver.MPVariable;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
-import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -25,7 +22,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
-public class FittingShapesInRectangle extends AdventOfCode{
+public class FittingShapesInRectangle extends AdventOfCode<FittingShapesInRectangle.ParsedData> {
 
     class Shape {
         int id;
@@ -142,12 +139,10 @@ public class FittingShapesInRectangle extends AdventOfCode{
         ArrayList<RectangleProblem> problems;
     }
 
-    private ParsedData LoadTextFile() {
-        try (InputStream in = ReadFile()) {
-            if (in == null) throw new FileNotFoundException("Resource not found");
-
-            var content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
-            var lines = content.split("\r\n");
+    @Override
+    protected ParsedData LoadTextFile() {
+        try {
+            var lines = ReadLines();
             
             var shapes = new ArrayList<Shape>();
             var problems = new ArrayList<RectangleProblem>();
@@ -273,7 +268,7 @@ public class FittingShapesInRectangle extends AdventOfCode{
 
     @Override
     public Number solvePart1() {
-        var data = LoadTextFile();
+        var data = getParsedInput();
         var shapes = data.shapes;
         var problems = data.problems;
         
@@ -1,13 +1,14 @@
 package com.adventofcode.problems;
 
-import java.io.FileNotFoundException;
+import com.adventofcode.utilities.CounterPressSolver;
+import com.adventofcode.utilities.LightToggleSolver;
+import com.adventofcode.utilities.SolutionCache;
+
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.ojalgo.optimisation.Expression;
 import org.ojalgo.optimisation.ExpressionsBasedModel;
@@ -23,8 +24,10 @@ import org.ojalgo.optimisation.Variable;
  * presses needed to configure all machines.
  * 
  * Part 1: Light Switch Puzzle
- * Uses Depth-First Search (DFS) to find the minimum button presses needed to toggle lights
- * from all-off to a target configuration. Each button toggles specific lights on/off.
+ * Find the minimum button presses needed to toggle lights from all-off to a target configuration.
+ * Each button toggles specific lights on/off. The first version was a Depth-First Search (DFS) over light lists,
+ * the lights and buttons are now bit masks so a press is an XOR and the order of presses does not matter,
+ * see LightToggleSolver.
  * 
  * Part 2: Joltage Counter Configuration (Main Challenge)
  * I tried a DFS search but it took too long.
@@ -32,57 +35,124 @@ import org.ojalgo.optimisation.Variable;
  * the binary vectors of the light switches and C is the resulting joltage vector.
  * We also have to add the constraints on x that all numbers are integers and are positive.
  * Also we want to minimize x.
+ * The matrix only holds 0s and 1s and most machines leave just a few buttons free once it is row reduced, so by
+ * default a dedicated exact search (CounterPressSolver) answers those and only the machines it gives up on go to the
+ * general ILP solver.
  */
-public class JoltageConfigurationProblem extends AdventOfCode{
+public class JoltageConfigurationProblem extends AdventOfCode<ArrayList<JoltageConfigurationProblem.Machine>> {
 
     private static final boolean DEBUG = false;
 
+    // How part 1 searches for the fewest presses
+    // DFS recurses over lists of lights, copying the lights and the seen states on every press
+    // BITMASK searches over long masks with BFS or subset enumeration, whichever space is smaller, and switches to
+    // Gaussian elimination over GF(2) for machines with too many buttons to enumerate
+    public enum Part1Strategy {
+        DFS,
+        BITMASK
+    }
+
+    private Part1Strategy part1Strategy = Part1Strategy.BITMASK;
+
+    // How part 2 finds the fewest presses
+    // ILP hands every machine to ojalgo's general branch and bound
+    // INTEGER_SEARCH row reduces the 0/1 matrix exactly and enumerates the few free buttons, see CounterPressSolver,
+    // machines with too many free buttons fall back to the ILP
+    public enum Part2Strategy {
+        ILP,
+        INTEGER_SEARCH
+    }
+
+    private Part2Strategy part2Strategy = Part2Strategy.INTEGER_SEARCH;
+
+    // Machines are independent ILPs, part 2 spreads them over this pool, null solves them one after another.
+    // The pool outlives the solves so its threads keep their MODEL_BUILDERS and COUNTER_SOLVERS between runs
+    private ForkJoinPool part2Pool = ForkJoinPool.commonPool();
+    private boolean reportSolveTimes = false;
+    // Wall time of each machine's solve in the last part 2 run, indexed like the parsed machines
+    private long[] solveTimesNs = new long[0];
+
+    // Machines that repeat exactly are answered from these, within one input and across runs (the keys are the
+    // machines themselves, so an answer stays valid whatever input it came from). The LRU bound keeps them small,
+    // the hit and miss counts add up over every run since the cache was created
+    private static final int DEFAULT_CACHE_CAPACITY = 4096;
+    private SolutionCache part1Cache = new SolutionCache(DEFAULT_CACHE_CAPACITY);
+    private SolutionCache part2Cache = new SolutionCache(DEFAULT_CACHE_CAPACITY);
+
+    private static final ThreadLocal<ModelBuilder> MODEL_BUILDERS = ThreadLocal.withInitial(ModelBuilder::new);
+    private static final ThreadLocal<CounterPressSolver> COUNTER_SOLVERS = ThreadLocal.withInitial(CounterPressSolver::new);
+
     class Button {
-        List<Integer> lightSwitches;
-        List<Integer> lightSwitchVector;
-        int numLights;
-        
-        Button(int[] switches, int numLights) {
-            this.numLights = numLights;
-            lightSwitches = Arrays.stream(switches)
-                    .boxed()
-                    .collect(Collectors.toList());
-            lightSwitchVector = getLightSwitchVector();
+        // Bit i is set when the button switches light i (or adds to counter i)
+        long mask;
+
+        Button(long mask) {
+            this.mask = mask;
         }
 
         public int getSize() {
-            return lightSwitches.size();
+            return Long.bitCount(mask);
         }
 
         List<Boolean> toggleLights(List<Boolean> currentLights) {
             var cloneLights = new ArrayList<Boolean>(currentLights);
-            for (var switch1 : lightSwitches) {
+            for (var switches = mask; switches != 0; switches &= switches - 1) {
+                var switch1 = Long.numberOfTrailingZeros(switches);
                 cloneLights.set(switch1, !cloneLights.get(switch1));
             }
             return cloneLights;
         }
-
-        List<Integer> getLightSwitchVector() {
-            var a = new ArrayList<Integer>();
-            for(var i = 0; i < numLights; i++) {
-                a.add(lightSwitches.contains(i) ? 1 : 0);
-            }
-            return a;
-        }
     }
 
     class Machine {
         int lowestDepth = Integer.MAX_VALUE;
         List<Boolean> lights;
-        List<Integer> joltage;
         List<Button> buttons;
+        // Bit i is light i, used by the bitmask solvers
+        long lightMask;
+        long[] buttonMasks;
+        int[] joltageTargets;
+        // Canonical forms for the solution caches, the button order does not change either answer so the masks
+        // are sorted. Part 1: lights, light mask, buttons. Part 2: counters, targets, buttons
+        long[] part1Key;
+        long[] part2Key;
 
-        public Machine(List<Boolean> lights, List<int[]> buttons, int[] joltage) {
+        public Machine(int numLights, long lightMask, long[] buttonMasks, int[] joltage) {
+            if (numLights > Long.SIZE) {
+                throw new IllegalArgumentException("A machine can have at most " + Long.SIZE + " lights, found " + numLights);
+            }
+            // The bitmask solvers index their states by the light bits, a bit past the last light would run off them.
+            // A shift by 64 is a shift by 0, with 64 lights every bit is a light
+            for (var button : buttonMasks) {
+                if (numLights < Long.SIZE && (button >>> numLights) != 0) {
+                    throw new IllegalArgumentException("A button switches light " + (Long.SIZE - 1 - Long.numberOfLeadingZeros(button))
+                            + " of a machine with " + numLights + " lights");
+                }
+            }
+            this.lightMask = lightMask;
+            this.buttonMasks = buttonMasks;
+            this.joltageTargets = joltage;
+            // The list form is only used by the DFS strategy
+            var lights = new ArrayList<Boolean>(numLights);
+            for (var i = 0; i < numLights; i++) {
+                lights.add(((lightMask >>> i) & 1) != 0);
+            }
             this.lights = lights;
-            int numLights = lights.size();
-            this.buttons = new ArrayList<Button>(buttons.stream().map(b -> new Button(b, numLights)).sorted(Comparator.comparingInt(Button::getSize)).toList());
-            this.joltage = Arrays.stream(joltage).boxed().toList();
+            this.buttons = new ArrayList<Button>(Arrays.stream(buttonMasks).mapToObj(Button::new).sorted(Comparator.comparingInt(Button::getSize)).toList());
             Collections.reverse(this.buttons);
+
+            var sortedButtons = buttonMasks.clone();
+            Arrays.sort(sortedButtons);
+            part1Key = new long[2 + sortedButtons.length];
+            part1Key[0] = numLights;
+            part1Key[1] = lightMask;
+            System.arraycopy(sortedButtons, 0, part1Key, 2, sortedButtons.length);
+            part2Key = new long[1 + joltage.length + sortedButtons.length];
+            part2Key[0] = joltage.length;
+            for (var i = 0; i < joltage.length; i++) {
+                part2Key[1 + i] = joltage[i];
+            }
+            System.arraycopy(sortedButtons, 0, part2Key, 1 + joltage.length, sortedButtons.length);
         }
 
         private int BooleanArrayToIntHashCode(List<Boolean> lights) {
@@ -102,7 +172,12 @@ public class JoltageConfigurationProblem extends AdventOfCode{
             return true;
         }
 
+        public int minPresses(LightToggleSolver solver) {
+            return solver.minPresses(lightMask, buttonMasks, lights.size());
+        }
+
         public int startSimulation() {
+            lowestDepth = Integer.MAX_VALUE;
             var startingLightsOff = new ArrayList<Boolean>();
             lights.stream().forEach(s -> startingLightsOff.add(false));
             toggleLights(startingLightsOff, new HashSet<Integer>(), 0);
@@ -136,19 +211,115 @@ public class JoltageConfigurationProblem extends AdventOfCode{
         super(filename, useExample);
     }
 
-    private ArrayList<Machine> LoadTextFile() {
-        try (InputStream in = ReadFile()) {
-            if (in == null) throw new FileNotFoundException("Resource not found");
+    public void setPart1Strategy(Part1Strategy part1Strategy) {
+        this.part1Strategy = part1Strategy;
+    }
+
+    // Replaces both solution caches, 0 turns caching off
+    public void setCacheCapacity(int capacity) {
+        part1Cache = new SolutionCache(capacity);
+        part2Cache = new SolutionCache(capacity);
+    }
+
+    public SolutionCache getPart1Cache() {
+        return part1Cache;
+    }
+
+    public SolutionCache getPart2Cache() {
+        return part2Cache;
+    }
+
+    public void setPart2Strategy(Part2Strategy part2Strategy) {
+        this.part2Strategy = part2Strategy;
+    }
+
+    // 1 solves the machines on the calling thread, more gives part 2 a pool of its own of that size in place of the
+    // common pool
+    public void setPart2Threads(int part2Threads) {
+        if (part2Threads < 1) {
+            throw new IllegalArgumentException("Part 2 needs at least one thread, got " + part2Threads);
+        }
+        if (part2Pool != null && part2Pool != ForkJoinPool.commonPool()) {
+            part2Pool.shutdown();
+        }
+        part2Pool = part2Threads == 1 ? null : new ForkJoinPool(part2Threads);
+    }
+
+    // Prints the per machine solve time percentiles after each part 2 run
+    public void setReportSolveTimes(boolean reportSolveTimes) {
+        this.reportSolveTimes = reportSolveTimes;
+    }
 
-            var content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
-            var lines = content.split("\r\n");
+    public long[] getSolveTimesNs() {
+        return solveTimesNs.clone();
+    }
+
+    @Override
+    protected ArrayList<Machine> LoadTextFile() {
+        try {
+            var cursor = OpenInput();
             var machines = new ArrayList<Machine>();
+            var buttons = new long[16];
+            var joltages = new int[16];
+
+            while (cursor.hasRemaining()) {
+                if (cursor.atEndOfLine()) {
+                    cursor.nextLine();
+                    continue;
+                }
+                // [.##.] (3) (1,3) (2) (2,3) (0,2) (0,1) {3,5,4,7}
+                cursor.skipSpaces();
+                cursor.expect('[');
+                var numLights = 0;
+                var lightMask = 0L;
+                while (!cursor.skipIf(']')) {
+                    var light = cursor.next();
+                    if (light != '#' && light != '.') {
+                        throw new IllegalStateException("Expected '#' or '.' in the lights before byte " + cursor.position());
+                    }
+                    if (numLights == Long.SIZE) {
+                        throw new IllegalArgumentException("A machine can have at most " + Long.SIZE + " lights");
+                    }
+                    if (light == '#') {
+                        lightMask |= 1L << numLights;
+                    }
+                    numLights++;
+                }
 
-            for (var s : lines) {
-                List<Boolean> lights = extractSingleGroup(s, "\\[(.*?)\\]").chars().mapToObj(c -> c == '#').toList();
-                List<int[]> buttons = extractMultiIntGroups(s, "\\(([^)]*)\\)");
-                int[] joltages = extractSingleIntGroup(s, "\\{([^}]*)\\}");
-                machines.add(new Machine(lights, buttons, joltages));
+                var numButtons = 0;
+                var numJoltages = 0;
+                cursor.skipSpaces();
+                while (!cursor.atEndOfLine()) {
+                    if (cursor.skipIf('(')) {
+                        var mask = 0L;
+                        do {
+                            var light = cursor.nextInt();
+                            if (light < 0 || light >= Long.SIZE) {
+                                throw new IllegalArgumentException("Light " + light + " is out of range before byte " + cursor.position());
+                            }
+                            mask |= 1L << light;
+                            cursor.skipSpaces();
+                        } while (cursor.skipIf(','));
+                        cursor.expect(')');
+                        if (numButtons == buttons.length) {
+                            buttons = Arrays.copyOf(buttons, numButtons * 2);
+                        }
+                        buttons[numButtons++] = mask;
+                    } else {
+                        cursor.expect('{');
+                        do {
+                            if (numJoltages == joltages.length) {
+                                joltages = Arrays.copyOf(joltages, numJoltages * 2);
+                            }
+                            joltages[numJoltages++] = cursor.nextInt();
+                            cursor.skipSpaces();
+                        } while (cursor.skipIf(','));
+                        cursor.expect('}');
+                    }
+                    cursor.skipSpaces();
+                }
+                machines.add(new Machine(numLights, lightMask, Arrays.copyOf(buttons, numButtons), Arrays.copyOf(joltages, numJoltages)));
+                cursor.nextLine();
             }
             return machines;
 
@@ -159,23 +330,192 @@ public class JoltageConfigurationProblem extends AdventOfCode{
 
     @Override
     public Number solvePart1() {
-        var data = LoadTextFile();
-        var steps = data.stream().map(Machine::startSimulation).toList();
-        return steps.stream().reduce(0, Integer::sum);
+        var data = getParsedInput();
+        if (part1Strategy == Part1Strategy.DFS) {
+            var steps = data.stream().map(Machine::startSimulation).toList();
+            return steps.stream().reduce(0, Integer::sum);
+        }
+
+        var solver = new LightToggleSolver();
+        var cache = part1Cache;
+        var total = 0;
+        for (var machine : data) {
+            var presses = cache.get(machine.part1Key);
+            if (presses == SolutionCache.MISSING) {
+                presses = findMinimumLightPresses(machine, solver);
+                cache.put(machine.part1Key, presses);
+            }
+            total += (int) presses;
+        }
+        return total;
+    }
+
+    // No combination of buttons giving the light pattern means the input is broken, summing the -1 would hide that
+    private int findMinimumLightPresses(Machine machine, LightToggleSolver solver) {
+        var presses = machine.minPresses(solver);
+        if (presses == LightToggleSolver.UNREACHABLE) {
+            throw new IllegalStateException("No combination of buttons gives the light pattern of machine with lights "
+                    + Long.toBinaryString(machine.lightMask));
+        }
+        return presses;
     }
 
     @Override
     public Number solvePart2() {
-        var data = LoadTextFile();
-        
+        var data = getParsedInput();
+        var times = new long[data.size()];
+        var cache = part2Cache;
+
         long totalPresses = 0;
-        for (var machine : data) {
-            totalPresses += findMinimumButtonPresses(machine);
+        var pool = part2Pool;
+        if (pool == null) {
+            for (var i = 0; i < data.size(); i++) {
+                totalPresses += timedMinimumButtonPresses(data.get(i), cache, times, i);
+            }
+        } else {
+            try {
+                var futures = new ArrayList<Future<Long>>();
+                for (var i = 0; i < data.size(); i++) {
+                    final var machineIndex = i;
+                    futures.add(pool.submit(() -> timedMinimumButtonPresses(data.get(machineIndex), cache, times, machineIndex)));
+                }
+                for (var future : futures) {
+                    totalPresses += future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+        }
+
+        solveTimesNs = times;
+        if (reportSolveTimes) {
+            printSolveTimes(times, cache);
         }
-        
         return totalPresses;
     }
 
+    // Each task writes only its own slot, the futures being joined makes the writes visible to the caller
+    private long timedMinimumButtonPresses(Machine machine, SolutionCache cache, long[] times, int index) {
+        var start = System.nanoTime();
+        var presses = cache.get(machine.part2Key);
+        if (presses == SolutionCache.MISSING) {
+            presses = part2Strategy == Part2Strategy.ILP
+                    ? findMinimumButtonPresses(machine, MODEL_BUILDERS.get())
+                    : findMinimumButtonPressesBySearch(machine, COUNTER_SOLVERS.get());
+            cache.put(machine.part2Key, presses);
+        }
+        times[index] = System.nanoTime() - start;
+        return presses;
+    }
+
+    // Same answer as the ILP, 0 when the targets cannot be reached which is also what the ILP path reports
+    private long findMinimumButtonPressesBySearch(Machine machine, CounterPressSolver solver) {
+        var presses = solver.minPresses(machine.buttonMasks, machine.joltageTargets);
+        if (presses == CounterPressSolver.TOO_LARGE) {
+            return findMinimumButtonPresses(machine, MODEL_BUILDERS.get());
+        }
+        if (presses == CounterPressSolver.UNREACHABLE) {
+            if (DEBUG) {
+                System.out.println("No solution found for machine");
+            }
+            return 0;
+        }
+        return presses;
+    }
+
+    // Nearest rank percentile of the sorted times
+    static long percentile(long[] sortedTimes, double percent) {
+        if (sortedTimes.length == 0) {
+            return 0;
+        }
+        var rank = (int) Math.ceil(percent / 100.0 * sortedTimes.length);
+        return sortedTimes[Math.max(rank, 1) - 1];
+    }
+
+    private void printSolveTimes(long[] times, SolutionCache cache) {
+        var sorted = times.clone();
+        Arrays.sort(sorted);
+        System.out.printf("Machines: %d, threads: %d, solve time p50 %.3fms p90 %.3fms p99 %.3fms max %.3fms%n",
+                sorted.length, part2Pool == null ? 1 : part2Pool.getParallelism(),
+                percentile(sorted, 50) / 1_000_000.0, percentile(sorted, 90) / 1_000_000.0,
+                percentile(sorted, 99) / 1_000_000.0, percentile(sorted, 100) / 1_000_000.0);
+        System.out.printf("Cache hits: %d, misses: %d%n", cache.hits(), cache.misses());
+    }
+
+    /**
+     * Builds the ILP model of one machine. ojalgo models are single use so every solve still gets a fresh model,
+     * what is kept between solves are the variable and constraint names and the arrays holding them.
+     * One builder per thread through MODEL_BUILDERS, a builder must never be shared.
+     */
+    static class ModelBuilder {
+        private String[] buttonNames = new String[0];
+        private String[] counterNames = new String[0];
+        private Variable[] buttonVars = new Variable[0];
+        private Expression[] constraints = new Expression[0];
+
+        private void ensureCapacity(int numButtons, int numCounters) {
+            if (buttonNames.length < numButtons) {
+                var names = Arrays.copyOf(buttonNames, numButtons);
+                for (var i = buttonNames.length; i < numButtons; i++) {
+                    names[i] = "button_" + i;
+                }
+                buttonNames = names;
+                buttonVars = new Variable[numButtons];
+            }
+            if (counterNames.length < numCounters) {
+                var names = Arrays.copyOf(counterNames, numCounters);
+                for (var i = counterNames.length; i < numCounters; i++) {
+                    names[i] = "counter_" + i;
+                }
+                counterNames = names;
+                constraints = new Expression[numCounters];
+            }
+        }
+
+        ExpressionsBasedModel build(Machine machine) {
+            int numButtons = machine.buttons.size();
+            int numCounters = machine.joltageTargets.length;
+            ensureCapacity(numButtons, numCounters);
+
+            ExpressionsBasedModel model = new ExpressionsBasedModel();
+
+            // Create variables for each button (x[0], x[1], ..., x[n])
+            // Each variable is a non-negative integer
+            for (int i = 0; i < numButtons; i++) {
+                buttonVars[i] = model.addVariable(buttonNames[i])
+                    .lower(0)  // Non-negative
+                    .integer(true);  // Integer constraint
+            }
+
+            // Create constraints: For each counter, sum of (button presses × button effect) = target joltage
+            // Ax = C  where A[counter][button] = 1 if button affects that counter, 0 otherwise
+            for (int counter = 0; counter < numCounters; counter++) {
+                constraints[counter] = model.addExpression(counterNames[counter]);
+                constraints[counter].level(machine.joltageTargets[counter]);  // Set target value
+            }
+            // Each button only adds to the counters it switches, so only those entries are set
+            for (int button = 0; button < numButtons; button++) {
+                for (var counters = machine.buttons.get(button).mask; counters != 0; counters &= counters - 1) {
+                    constraints[Long.numberOfTrailingZeros(counters)].set(buttonVars[button], 1);
+                }
+            }
+
+            // Objective: Minimize total button presses (x[0] + x[1] + ... + x[n])
+            Expression objective = model.addExpression("total_presses").weight(1);
+            for (int i = 0; i < numButtons; i++) {
+                objective.set(buttonVars[i], 1);
+            }
+
+            // The model keeps its own references, drop ours so a finished model can be collected
+            Arrays.fill(buttonVars, 0, numButtons, null);
+            Arrays.fill(constraints, 0, numCounters, null);
+            return model;
+        }
+    }
+
     /**
      * Solves the Integer Linear Programming problem:
      * Minimize: sum of all button presses (x[0] + x[1] + ... + x[n])
@@ -185,9 +525,8 @@ public class JoltageConfigurationProblem extends AdventOfCode{
      * Where A is the matrix of button vectors, C is the target joltage vector,
      * and x is the number of presses for each button.
      */
-    private long findMinimumButtonPresses(Machine machine) {
+    private long findMinimumButtonPresses(Machine machine, ModelBuilder builder) {
         int numButtons = machine.buttons.size();
-        int numCounters = machine.joltage.size();
         
         try {
             // How an Integer Linear Program Solver works:
@@ -207,38 +546,8 @@ public class JoltageConfigurationProblem extends AdventOfCode{
             // 5. For this problem, a valid integer solution is guaranteed to exist
 
             // Create the optimization model
-            ExpressionsBasedModel model = new ExpressionsBasedModel();
-            
-            // Create variables for each button (x[0], x[1], ..., x[n])
-            // Each variable is a non-negative integer
-            Variable[] buttonVars = new Variable[numButtons];
-            for (int i = 0; i < numButtons; i++) {
-                buttonVars[i] = model.addVariable("button_" + i)
-                    .lower(0)  // Non-negative
-                    .integer(true);  // Integer constraint
-            }
-            
-            // Create constraints: For each counter, sum of (button presses × button effect) = target joltage
-            // Ax = C  where A[counter][button] = 1 if button affects that counter, 0 otherwise
-            for (int counter = 0; counter < numCounters; counter++) {
-                Expression constraint = model.addExpression("counter_" + counter);
-                constraint.level(machine.joltage.get(counter));  // Set target value
-                
-                // Add each button's contribution to this counter
-                for (int button = 0; button < numButtons; button++) {
-                    int effect = machine.buttons.get(button).lightSwitchVector.get(counter);
-                    if (effect > 0) {
-                        constraint.set(buttonVars[button], effect);
-                    }
-                }
-            }
-            
-            // Objective: Minimize total button presses (x[0] + x[1] + ... + x[n])
-            Expression objective = model.addExpression("total_presses").weight(1);
-            for (Variable var : buttonVars) {
-                objective.set(var, 1);
-            }
-            
+            ExpressionsBasedModel model = builder.build(machine);
+
             // Solve the ILP
             Optimisation.Result result = model.minimise();
             
@@ -269,38 +578,4 @@ public class JoltageConfigurationProblem extends AdventOfCode{
             return 0;
         }
     }
-
-    /** Returns the first regex capture group match, or null if none. */
-    static String extractSingleGroup(String s, String regex) {
-        Matcher m = Pattern.compile(regex).matcher(s);
-        return m.find() ? m.group(1) : null;
-    }
-
-    /** Extracts all matches of regex, splitting each captured group by comma into ints. */
-    static List<int[]> extractMultiIntGroups(String s, String regex) {
-        Matcher m = Pattern.compile(regex).matcher(s);
-        List<int[]> out = new ArrayList<>();
-        while (m.find()) {
-            out.add(parseInts(m.group(1)));
-        }
-        return out;
-    }
-
-    /** Extracts a single match of regex into ints. */
-    static int[] extractSingleIntGroup(String s, String regex) {
-        Matcher m = Pattern.compile(regex).matcher(s);
-        return m.find() ? parseInts(m.group(1)) : new int[0];
-    }
-
-    /** Parses "1,3" or "3" or " 0, 2 " into int[]. */
-    static int[] parseInts(String body) {
-        body = body.trim();
-        if (body.isEmpty()) return new int[0];
-        String[] parts = body.split("\\s*,\\s*");
-        int[] arr = new int[parts.length];
-        for (int i = 0; i < parts.length; i++) {
-            arr[i] = Integer.parseInt(parts[i]);
-        }
-        return arr;
-    }
 }
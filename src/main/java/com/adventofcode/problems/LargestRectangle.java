@@ -1,25 +1,40 @@
 package com.adventofcode.problems;
 
-import com.adventofcode.utilities.CoordinatesHashing;
-import com.adventofcode.utilities.Node;
+import com.adventofcode.utilities.PointStore;
+import com.adventofcode.utilities.PolygonGrid;
 import com.adventofcode.utilities.Rectangle;
+import com.adventofcode.utilities.SegmentCollisionIndex;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LargestRectangle extends AdventOfCode<PointStore> {
+
+    // How part 2 checks that a rectangle stays inside the shape
+    // PERIMETER walks a set of the tiles just outside the path, building it touches every tile along the path
+    // PREFIX_SUM uses a coordinate compressed inside/outside grid so both building and checking only depend on
+    // the number of red tiles, not on how large their coordinates are
+    public enum Part2Strategy {
+        PERIMETER,
+        PREFIX_SUM
+    }
 
-public class LargestRectangle extends AdventOfCode {
+    private Part2Strategy part2Strategy = Part2Strategy.PREFIX_SUM;
 
     public LargestRectangle(String filename, boolean useExample) {
         super(filename, useExample);
     }
 
+    public void setPart2Strategy(Part2Strategy part2Strategy) {
+        this.part2Strategy = part2Strategy;
+    }
+
     // A class to define an outside perimeter of the shape efficiently
     class OutsidePerimeter {
-        HashMap<Long, TreeSet<Long>> rowToColValues = new HashMap<>();
-        HashMap<Long, TreeSet<Long>> colToRowValues = new HashMap<>();
+        // Built once from the path, each side of a rectangle is then checked with a binary search
+        final SegmentCollisionIndex perimeter;
 
         // This takes all the values 1 block outside the perimeter to construct a perimeter of values we can use to check
         // when a testing rectangles perimeter hits these values we know it has gone out of the defined shape.
@@ -27,181 +42,84 @@ public class LargestRectangle extends AdventOfCode {
         // - The shape defined by the perimeter must be one single shape the path of the shape cannot cross over
         // - The perimeter + 1 does not include corner block this is not neccessary because we know that since we are making
         //   rectangles the perimeters are guaranteed to be orthogonal to any red squares which are also used to define the path.
-        public OutsidePerimeter(List<Node> data, int direction) {
+        public OutsidePerimeter(PointStore points, int direction) {
+            var builder = new SegmentCollisionIndex.Builder();
             var newDirection = 0L;
-            var point0 = data.get(data.size() - 1).getCoordinates();
-            var point1 = data.get(0).getCoordinates();
-            for (var i = 1; i < data.size() + 1; i++) {
-                var j = i % data.size();
-                var point2 = data.get(j).getCoordinates();
-                var dimension = point2.get(0) - point1.get(0) == 0 ? 1 : 0;
-
-                var increment = (point2.get(dimension) - point1.get(dimension)) / Math.abs((point2.get(dimension) - point1.get(dimension)));
+            var point0 = points.size() - 1;
+            var point1 = 0;
+            for (var i = 1; i < points.size() + 1; i++) {
+                var point2 = i % points.size();
+                var dimension = points.getX(point2) - points.getX(point1) == 0 ? 1 : 0;
+                var start = points.get(point1, dimension);
+                var end = points.get(point2, dimension);
+
+                var increment = (end - start) / Math.abs(end - start);
                 var outsideIncrement = increment * direction * -1;
-                for (var a = point1.get(dimension); a != point2.get(dimension) + increment; a += increment) {
+                for (var a = start; a != end + increment; a += increment) {
                     // Increments the perimeter by 1 in the outside direction
                     if (dimension == 0) {
-                        addValue(a, point1.get(1) + outsideIncrement);
+                        builder.add(a, points.getY(point1) + outsideIncrement);
                     } else {
-                        addValue(point1.get(0) + outsideIncrement * -1, a);
+                        builder.add(points.getX(point1) + outsideIncrement * -1, a);
                     }
                 }
 
-                // On the inside of an L bend
-                newDirection = getVectorScalarProductFromPoints(new Node(point0), new Node(point1), new Node(point2));
+                // On the inside of an L bend each side's outside line runs over the path tile next to the corner on the
+                // other side: the one after it on this side and the one before it on the last, which goes against
+                // the turn. These are path tiles so they stay removed even when a later side adds them again
+                newDirection = getVectorScalarProductFromPoints(points, point0, point1, point2);
                 if (newDirection != direction) {
                     if (dimension == 0) {
-                        var y = (increment > 0 ? increment : -increment) * direction;
-                        removeValue(point1.get(0) + increment, point1.get(1));
-                        removeValue(point1.get(0), point1.get(1) + y);
+                        var y = -increment * direction;
+                        builder.remove(points.getX(point1) + increment, points.getY(point1));
+                        builder.remove(points.getX(point1), points.getY(point1) + y);
                     }else {
-                        var x = (increment > 0 ? -increment : increment) * direction;
-                        removeValue(point1.get(0) + x, point1.get(1));
-                        removeValue(point1.get(0), point1.get(1) + increment);
+                        var x = increment * direction;
+                        builder.remove(points.getX(point1) + x, points.getY(point1));
+                        builder.remove(points.getX(point1), points.getY(point1) + increment);
                     }
                 }
                 point0 = point1;
                 point1 = point2;
             }
-        }
-
-        public void addValue(long x, long y) {
-            if (rowToColValues.containsKey(x)) {
-                rowToColValues.get(x).add(y);
-            } else {
-                var newHashSetCols = new TreeSet<Long>();
-                newHashSetCols.add(y);
-                rowToColValues.put(x, newHashSetCols);
-            }
-
-            if (colToRowValues.containsKey(y)) {
-                colToRowValues.get(y).add(x);
-            } else {
-                var newHashSetRows = new TreeSet<Long>();
-                newHashSetRows.add(x);
-                colToRowValues.put(y, newHashSetRows);
-            }
-        }
-
-        public void removeValue(long x, long y) {
-            if (rowToColValues.containsKey(x)) {
-                rowToColValues.get(x).remove(y);
-                if (rowToColValues.get(x).size() == 0) {
-                    rowToColValues.remove(x);
-                }
-            }
-
-            if (rowToColValues.containsKey(y)) {
-                colToRowValues.get(y).remove(x);
-                if (colToRowValues.get(y).size() == 0) {
-                    colToRowValues.remove(y);
-                }
-            }
-        }
-
-        private boolean withinRange(long min, long max, long num) {
-            return min <= num && max >= min;
-        }
-
-        private boolean collidesWithLine(boolean isXDimension, long index, long min, long max) {
-            // Gets a sorted list of indexes
-            var dimensionalSet = isXDimension ? rowToColValues : colToRowValues;
-            if (!dimensionalSet.containsKey(index)) {
-                return false;
-            }
-
-            var rowsOrCols = dimensionalSet.get(index);
-            for(var idx : rowsOrCols) {
-                // Escape early since the iterations are sorted
-                if (idx > max) {
-                    break;
-                }
-                if (withinRange(min, max, idx)) {
-                    return true;
-                }
-            }
-            return false;
+            perimeter = builder.build();
         }
 
         public boolean collidesWithPerimeter(Rectangle rectangle) {
             var nodeA = rectangle.getA();
             var nodeB = rectangle.getB();
-            var minX = Math.min(nodeA.getX(), nodeB.getX());
-            var maxX = Math.max(nodeA.getX(), nodeB.getX());
-            var minY = Math.min(nodeA.getY(), nodeB.getY());
-            var maxY = Math.max(nodeA.getY(), nodeB.getY());
+            return collidesWithPerimeter(Math.min(nodeA.getX(), nodeB.getX()), Math.min(nodeA.getY(), nodeB.getY()),
+                    Math.max(nodeA.getX(), nodeB.getX()), Math.max(nodeA.getY(), nodeB.getY()));
+        }
 
+        public boolean collidesWithPerimeter(long minX, long minY, long maxX, long maxY) {
             // Test the four lines that make the perimeter of the rectangle to see if
             // we have any outer perimeter collisions
-            return collidesWithLine(true, minX, minY, maxY) ||
-                    collidesWithLine(true, maxX, minY, maxY) ||
-                    collidesWithLine(false, minY, minX, maxX) ||
-                    collidesWithLine(false, maxY, minX, maxX);
+            return perimeter.collidesWithRectangleSides(minX, minY, maxX, maxY);
         }
     }
 
     boolean useExample = false;
-    private ArrayList<List<Long>> LoadTextFile() {
-        try (InputStream in = ReadFile()) {
-            if (in == null) throw new FileNotFoundException("Resource not found");
-
-            var content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
-            var lines = content.split("\r\n");
-            var fullMap = new ArrayList<List<Long>>();
-
-            for (var line : lines) {
-                var coordinates = line.split(",");
-//                var reverseCoordinates = new String[] { coordinates[1], coordinates[0] };
-                fullMap.add(Arrays.stream(coordinates).map(Long::parseLong).toList());
-            }
-            return fullMap;
-
+    @Override
+    protected PointStore LoadTextFile() {
+        try {
+            return PointStore.parse(OpenInput(), 2);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
-
-    private HashSet<Rectangle> ConstructTree(ArrayList<List<Long>> coordinates) {
-        var nodes = coordinates.stream().map(Node::new).toList();
-        var graph = new HashSet<Rectangle>();
-        var hashCodeCheck = new HashSet<Integer>();
-
-        for(var node : nodes) {
-            for(var comparisonNode : nodes) {
-                if (node == comparisonNode) {
-                    continue;
-                }
-                var tempEdge = new Rectangle(node, comparisonNode);
-
-                // Here we use the hash code to check if the Edge already exists in the map regardless of direction A->B or B->A
-                if (!hashCodeCheck.contains(tempEdge.hashCode())) {
-                    var edge = new Rectangle(node, comparisonNode);
-                    graph.add(edge);
-                    hashCodeCheck.add(edge.hashCode());
-                }
+    // The largest rectangle made from any two red tiles, the area is computed straight from the point store
+    // so the pair enumeration does not allocate
+    public Long solvePart1() {
+        var points = getParsedInput();
+        var largestArea = 0L;
+        for(var i = 0; i < points.size(); i++) {
+            for(var j = i + 1; j < points.size(); j++) {
+                largestArea = Math.max(largestArea, Rectangle.getArea(points, i, j));
             }
         }
-        return graph;
-
-    }
-
-    // In this solution we want to find the distances between all the nodes
-    // We then sort based on the distances and construct the trees according to the nodes within them
-    public Long solvePart1() {
-        var data = LoadTextFile();
-        var graph = ConstructTree(data);
-        var numConnections = useExample ? 10 : 1000;
-        HashSet<Node> seenNodes = new HashSet<>();
-        List<HashSet<Node>> trees = new ArrayList<>();
-
-        var sortedGraph = graph.stream().sorted(Comparator.comparingDouble(Rectangle::getArea)).toList();
-        return (long)sortedGraph.get(sortedGraph.size() - 1).getArea();
-    }
-
-    // Convert our positional coordinates to a vector from point1 to point2
-    public List<Long> getVectorFromPositions(Node pos1, Node pos2) {
-        return List.of(pos2.getX()- pos1.getX(), pos2.getY() - pos1.getY());
+        return largestArea;
     }
 
     // When given 3 points in order we convert them into 2 vectors
@@ -209,10 +127,13 @@ public class LargestRectangle extends AdventOfCode {
     // relative the first.
     // If the value is positive it means the second vector is to the right of the first which indicates a right turn/bend
     // If the value is negative it means the second vector is to the left indicating a left turn/bend
-    public Long getVectorScalarProductFromPoints(Node pos1, Node pos2, Node pos3) {
-        var v1 = getVectorFromPositions(pos1, pos2);
-        var v2 = getVectorFromPositions(pos2, pos3);
-        var direction = v1.get(0) * v2.get(1) - v1.get(1) * v2.get(0);
+    // The vectors are pos1 -> pos2 and pos2 -> pos3 taken from the point store
+    public long getVectorScalarProductFromPoints(PointStore points, int pos1, int pos2, int pos3) {
+        var v1x = points.getX(pos2) - points.getX(pos1);
+        var v1y = points.getY(pos2) - points.getY(pos1);
+        var v2x = points.getX(pos3) - points.getX(pos2);
+        var v2y = points.getY(pos3) - points.getY(pos2);
+        var direction = v1x * v2y - v1y * v2x;
         if (direction == 0) {
             return 0L;
         }
@@ -221,14 +142,13 @@ public class LargestRectangle extends AdventOfCode {
 
     // This find the direction of the path which we know to be a loop
     // if it is +1 it means the path rotates clockwise otherwise -1 is anticlockwise
-    public int getDirectionOfPath(List<Node> data) {
-        var point0 = data.get(data.size() - 1);
-        var point1 = data.get(0);
+    public int getDirectionOfPath(PointStore points) {
+        var point0 = points.size() - 1;
+        var point1 = 0;
         var direction = 0;
-        for (var i = 1; i < data.size() + 1; i++) {
-            var j = i % data.size();
-            var point2 = data.get(j);
-            direction += getVectorScalarProductFromPoints(point0, point1, point2);
+        for (var i = 1; i < points.size() + 1; i++) {
+            var point2 = i % points.size();
+            direction += getVectorScalarProductFromPoints(points, point0, point1, point2);
             point0 = point1;
             point1 = point2;
         }
@@ -241,35 +161,84 @@ public class LargestRectangle extends AdventOfCode {
 
     // Answer: 1479665889
     public Long solvePart2() {
-        var data = LoadTextFile().stream().map(Node::new).toList();
-        var direction = getDirectionOfPath(data);
-        var outsidePerimeter = new OutsidePerimeter(data, direction);
+        var points = getParsedInput();
+        if (part2Strategy == Part2Strategy.PREFIX_SUM) {
+            var grid = new PolygonGrid(points);
+            return largestContainedArea(points, grid::containsRectangle);
+        }
 
-        var largestArea = 0L;
-        var seenPoints =  new HashSet<Long>();
-        for(var point: data) {
-            for(var point2: data) {
-                var coordinatesHashCode = CoordinatesHashing.hashUnordered(point.getX().intValue(), point.getY().intValue(), point2.getX().intValue(), point2.getY().intValue());
-                if (seenPoints.contains(coordinatesHashCode)) {
-                    continue;
-                }
-                var tempRect = new Rectangle(point, point2);
-                if (tempRect.getArea() <= largestArea) {
-                    continue;
-                }
+        var direction = getDirectionOfPath(points);
+        var outsidePerimeter = new OutsidePerimeter(points, direction);
+        return largestContainedArea(points, (point, point2) -> !outsidePerimeter.collidesWithPerimeter(
+                Math.min(points.getX(point), points.getX(point2)), Math.min(points.getY(point), points.getY(point2)),
+                Math.max(points.getX(point), points.getX(point2)), Math.max(points.getY(point), points.getY(point2))));
+    }
 
-                var hitPerimeter = outsidePerimeter.collidesWithPerimeter(tempRect);
-                if (!hitPerimeter) {
-                    largestArea = (long)tempRect.getArea();
-                }
+    // Whether the rectangle with two red tiles as opposite corners stays inside the shape, must be safe to call
+    // from several threads at once
+    interface RectangleCheck {
+        boolean contains(int point, int point2);
+    }
+
+    // The largest rectangle passing the check, searched in parallel over the i < j pairs
+    private long largestContainedArea(PointStore points, RectangleCheck check) {
+        var best = new AtomicLong();
+        new PairSearch(points, check, best, 0, points.size(), new long[] {
+                points.min(0), points.max(0), points.min(1), points.max(1)
+        }).invoke();
+        return best.get();
+    }
+
+    // Splits the rows of the pair triangle in halves until a block is small enough to scan, the work stealing pool
+    // evens out the rows at the top of the triangle having more pairs than the ones at the bottom.
+    // All blocks share the best area found so far, a pair is only checked when it could beat it.
+    static class PairSearch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private static final int ROWS_PER_BLOCK = 16;
+
+        private final PointStore points;
+        private final RectangleCheck check;
+        private final AtomicLong best;
+        private final int start;
+        private final int end;
+        // minX, maxX, minY, maxY of all the points
+        private final long[] bounds;
+
+        PairSearch(PointStore points, RectangleCheck check, AtomicLong best, int start, int end, long[] bounds) {
+            this.points = points;
+            this.check = check;
+            this.best = best;
+            this.start = start;
+            this.end = end;
+            this.bounds = bounds;
+        }
 
-                seenPoints.add(coordinatesHashCode);
+        @Override
+        protected void compute() {
+            if (end - start > ROWS_PER_BLOCK) {
+                var middle = (start + end) >>> 1;
+                invokeAll(new PairSearch(points, check, best, start, middle, bounds),
+                        new PairSearch(points, check, best, middle, end, bounds));
+                return;
             }
 
+            for (var point = start; point < end; point++) {
+                // No rectangle from this point can reach past the bounding box, skip the row when that cannot win
+                var x = points.getX(point);
+                var y = points.getY(point);
+                var upperBound = (Math.max(x - bounds[0], bounds[1] - x) + 1) * (Math.max(y - bounds[2], bounds[3] - y) + 1);
+                if (upperBound <= best.get()) {
+                    continue;
+                }
 
+                for (var point2 = point + 1; point2 < points.size(); point2++) {
+                    var area = Rectangle.getArea(points, point, point2);
+                    if (area > best.get() && check.contains(point, point2)) {
+                        best.accumulateAndGet(area, Math::max);
+                    }
+                }
+            }
         }
-        return largestArea;
     }
-
-
 }
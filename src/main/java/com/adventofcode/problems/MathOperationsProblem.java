@@ -1,13 +1,10 @@
 package com.adventofcode.problems;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 
-public class MathOperationsProblem extends AdventOfCode {
+public class MathOperationsProblem extends AdventOfCode<MathOperationsProblem.OperateNumber> {
 
     public MathOperationsProblem(String filename, boolean useExample) {
         super(filename, useExample);
@@ -75,16 +72,14 @@ public class MathOperationsProblem extends AdventOfCode {
     }
 
     boolean useExample = false;
-    private OperateNumber LoadTextFile() {
-        try (InputStream in = ReadFile()) {
-            if (in == null) throw new FileNotFoundException("Resource not found");
-
-            var content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
-
+    @Override
+    protected OperateNumber LoadTextFile() {
+        try {
             var numbers = new ArrayList<Long[]>();
             var operations = new ArrayList<Character>();
-            var lines = content.split("\r\n");
-            for (var line : lines) {
+            var lines = new ArrayList<String>();
+            for (var line : ReadLines()) {
+                lines.add(line);
                 if (line.length() == 0) {
                     continue;
                 }
@@ -102,7 +97,7 @@ public class MathOperationsProblem extends AdventOfCode {
                     }
                 }
             }
-            return new OperateNumber(numbers, operations, lines);
+            return new OperateNumber(numbers, operations, lines.toArray(new String[0]));
 
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -110,7 +105,7 @@ public class MathOperationsProblem extends AdventOfCode {
     }
 
     public Long solvePart1() {
-        var operateNumber = LoadTextFile();
+        var operateNumber = getParsedInput();
         var res = 0L;
         for(var i = 0; i < operateNumber.size(); i++) {
             try {
@@ -123,7 +118,7 @@ public class MathOperationsProblem extends AdventOfCode {
     }
 
     public Long solvePart2() {
-        var operateNumber = LoadTextFile();
+        var operateNumber = getParsedInput();
         var numbersSize = operateNumber.lines.length - 1;
 
         var operatingNumbers = new ArrayList<Long>();
@@ -1,14 +1,11 @@
 package com.adventofcode.problems;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 
 // We have input like 11-24, 2-4, 5-6 and we get given numbers that we want to check fit into some range
 // If the ranges are overlapping like 11-24, 15-30 we want to extend the range to become a single one 11-30
-public class RangesProblem extends AdventOfCode {
+public class RangesProblem extends AdventOfCode<RangesProblem.LoadedFileData> {
 
     public RangesProblem(String filename, boolean useExample) {
         super(filename, useExample);
@@ -64,15 +61,12 @@ public class RangesProblem extends AdventOfCode {
     }
 
     boolean useExample = false;
-    private LoadedFileData LoadTextFile() {
-        try (InputStream in = ReadFile()) {
-            if (in == null) throw new FileNotFoundException("Resource not found");
-
-            var content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
-
+    @Override
+    protected LoadedFileData LoadTextFile() {
+        try {
             var rangeList = new ArrayList<Range>();
             var inputsToCheck = new ArrayList<Long>();
-            var lines = content.split("\r\n");
+            var lines = ReadLines();
             for (var line : lines) {
                 if (line.length() == 0) {
                     continue;
@@ -118,7 +112,7 @@ public class RangesProblem extends AdventOfCode {
     // Answer is 770
     // Here we load all the ranges and check to see how many IDs fall in those ranges
     public Integer solvePart1() {
-        var data = LoadTextFile();
+        var data = getParsedInput();
 
         var validCount = 0;
         for(var ID : data.InputsToCheck) {
@@ -136,7 +130,7 @@ public class RangesProblem extends AdventOfCode {
     // They want to know all numbers within the ranges
     // Ex. 11 - 15 would be 11, 12, 13, 14, 15 which means there are 5 numbers
     public Long solvePart2() {
-        var data = LoadTextFile();
+        var data = getParsedInput();
         long result = 0;
         for(var range : data.Ranges) {
             result += range.GetSizeOfRange();
@@ -1,9 +1,8 @@
 package com.adventofcode.problems;
 
-import java.io.FileNotFoundException;
+import com.adventofcode.utilities.LongHashSet;
+
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
@@ -11,7 +10,7 @@ import java.util.*;
  * You are given a min and a max number inclusive. Find the sum of all the invalid IDs
  * Numbers must repeat twice and IDs cannot start with 0.
  */
-public class RepeatingNumbersProblem extends AdventOfCode {
+public class RepeatingNumbersProblem extends AdventOfCode<List<long[]>> {
 
     private static List<Long> PRIME_NUMBER_CACHE = new ArrayList<>(List.of(2L, 3L, 5L, 7L, 11L));
 
@@ -19,15 +18,20 @@ public class RepeatingNumbersProblem extends AdventOfCode {
         super(filename, useExample);
     }
 
-    private List<long[]> LoadTextFile() {
-        try (InputStream in = ReadFile()) {
-            if (in == null) throw new FileNotFoundException("Resource not found");
-
-            var content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
-            return Arrays.stream(content.split(",")).map(s -> {
-                var minMaxPair = s.split("-");
-                return new long[]{Long.parseLong(minMaxPair[0]), Long.parseLong(minMaxPair[1]) };
-            }).toList();
+    @Override
+    protected List<long[]> LoadTextFile() {
+        try {
+            var minMaxPairs = new ArrayList<long[]>();
+            for (var line : ReadLines()) {
+                for (var range : line.split(",")) {
+                    if (range.isBlank()) {
+                        continue;
+                    }
+                    var minMaxPair = range.trim().split("-");
+                    minMaxPairs.add(new long[]{Long.parseLong(minMaxPair[0]), Long.parseLong(minMaxPair[1]) });
+                }
+            }
+            return minMaxPairs;
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -165,7 +169,7 @@ public class RepeatingNumbersProblem extends AdventOfCode {
             }
         }
 
-        var repeating_numbers = new HashSet<Long>();
+        var repeating_numbers = new LongHashSet();
         factors.stream().forEach(factor -> {
             var upper_bound = number/(long)Math.pow(10, numDigits - factor);
             if (buildNumber(upper_bound, factor, numDigits / factor) > number) {
@@ -179,7 +183,7 @@ public class RepeatingNumbersProblem extends AdventOfCode {
             }
         });
 
-        var alt = repeating_numbers.stream().reduce(0L, Long::sum);
+        var alt = Arrays.stream(repeating_numbers.toArray()).sum();
         var result = sum_of_all_patterns_list.stream().reduce(0L, Long::sum);
         return alt;
     }
@@ -241,7 +245,7 @@ public class RepeatingNumbersProblem extends AdventOfCode {
 
     @Override
     public Number solvePart1() {
-        var minMaxPairs = LoadTextFile();
+        var minMaxPairs = getParsedInput();
         return minMaxPairs.stream()
                 .map(pair -> findTotalOfNumbersRepeatingTwiceFast(pair[0], pair[1]))
                 .reduce(0L, Long::sum);
@@ -249,7 +253,7 @@ public class RepeatingNumbersProblem extends AdventOfCode {
 
     @Override
     public Number solvePart2() {
-        var minMaxPairs = LoadTextFile();
+        var minMaxPairs = getParsedInput();
         return minMaxPairs.stream()
                 .map(pair -> findTotalOfAnyRepeatingDigit(pair[0], pair[1]))
                 .reduce(0L, Long::sum);
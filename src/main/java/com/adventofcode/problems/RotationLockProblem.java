@@ -1,9 +1,7 @@
 package com.adventofcode.problems;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 /**
  * We have a rotating lock with numbers from 0-99
@@ -15,7 +13,7 @@ import java.nio.charset.StandardCharsets;
  * For the second part we want to count the number of times the position crosses 0
  * Note that given it is a rotation lock if it passes 99 it wraps back to 0
  */
-public class RotationLockProblem extends AdventOfCode {
+public class RotationLockProblem extends AdventOfCode<int[]> {
 
     private static int POSITION = 50;
 
@@ -23,18 +21,25 @@ public class RotationLockProblem extends AdventOfCode {
         super(filename, useExample);
     }
 
-    private int[] LoadTextFile() {
-        try (InputStream in = ReadFile()) {
-            if (in == null) throw new FileNotFoundException("Resource not found");
-
-            var content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
-            var actions = content.split("\n");
-            var moves = new int[actions.length];
-            for (int i = 0; i < actions.length; i++) {
-                int sign = actions[i].charAt(0) == 'R' ? 1 : -1;
-                moves[i] = sign * Integer.parseInt(actions[i].substring(1).trim());
+    @Override
+    protected int[] LoadTextFile() {
+        try {
+            var cursor = OpenInput();
+            var moves = new int[1024];
+            var count = 0;
+            while (cursor.hasRemaining()) {
+                if (cursor.atEndOfLine()) {
+                    cursor.nextLine();
+                    continue;
+                }
+                int sign = cursor.next() == 'R' ? 1 : -1;
+                if (count == moves.length) {
+                    moves = Arrays.copyOf(moves, count * 2);
+                }
+                moves[count++] = sign * cursor.nextInt();
+                cursor.nextLine();
             }
-            return moves;
+            return Arrays.copyOf(moves, count);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -42,7 +47,7 @@ public class RotationLockProblem extends AdventOfCode {
 
     // Answer is 1141
     public int GetNumberOfTimesLockStopsAt0() {
-        var moves = LoadTextFile();
+        var moves = getParsedInput();
         var position = POSITION;
         var count = 0;
         for(var move : moves) {
@@ -56,7 +61,7 @@ public class RotationLockProblem extends AdventOfCode {
 
     // Answer is 6634
     public int GetTotalNumberOfTimes0isPassed() {
-        var moves = LoadTextFile();
+        var moves = getParsedInput();
         var position = POSITION;
         var count = 0;
         for(var move : moves) {
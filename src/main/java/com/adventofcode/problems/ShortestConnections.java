@@ -1,15 +1,13 @@
 package com.adventofcode.problems;
 
-import com.adventofcode.utilities.Edge;
-import com.adventofcode.utilities.Node;
+import com.adventofcode.utilities.DisjointSet;
+import com.adventofcode.utilities.KdTree;
+import com.adventofcode.utilities.PointStore;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-import java.util.*;
+import java.util.Arrays;
 
-public class ShortestConnections extends AdventOfCode {
+public class ShortestConnections extends AdventOfCode<PointStore> {
 
     boolean useExample = false;
 
@@ -17,178 +15,46 @@ public class ShortestConnections extends AdventOfCode {
         super(filename, useExample);
     }
 
-    private ArrayList<List<Long>> LoadTextFile() {
-        try (InputStream in = ReadFile()) {
-            if (in == null) throw new FileNotFoundException("Resource not found");
-
-            var content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
-
-            var rangeList = new ArrayList<RangesProblem.Range>();
-            var inputsToCheck = new ArrayList<Long>();
-            var lines = content.split("\r\n");
-            var fullMap = new ArrayList<List<Long>>();
-
-            for (var line : lines) {
-                var coordinates = line.split(",");
-                fullMap.add(Arrays.stream(coordinates).map(Long::parseLong).toList());
-            }
-            return fullMap;
-
+    @Override
+    protected PointStore LoadTextFile() {
+        try {
+            return PointStore.parse(OpenInput(), 3);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
 
-    private HashSet<Edge> ConstructTree(ArrayList<List<Long>> coordinates) {
-        var nodes = coordinates.stream().map(Node::new).toList();
-        var graph = new HashSet<Edge>();
-        var hashCodeCheck = new HashSet<Integer>();
-
-        for(var node : nodes) {
-            for(var comparisonNode : nodes) {
-                if (node == comparisonNode) {
-                    continue;
-                }
-                var tempEdge = new Edge(node, comparisonNode);
-
-                // Here we use the hash code to check if the Edge already exists in the map regardless of direction A->B or B->A
-                if (!hashCodeCheck.contains(tempEdge.hashCode())) {
-                    var edge = new Edge(node, comparisonNode);
-                    graph.add(edge);
-                    hashCodeCheck.add(edge.hashCode());
-                }
-            }
-        }
-        return graph;
-
-    }
-
-    // In this solution we want to find the distances between all of the nodes
-    // We then sort based on the distances and construct the trees according to the nodes within them
+    // In this solution we want to find the connections between the closest junction boxes
+    // Only the numConnections closest pairs are selected (a bounded heap, or a k-d tree stream for large inputs)
+    // rather than sorting every pair, the trees are joined with a disjoint set where every junction box starts as its own tree
     // Answer: 123234
     public Long solvePart1() {
-        var data = LoadTextFile();
-        var graph = ConstructTree(data);
+        var points = getParsedInput();
         var numConnections = useExample ? 10 : 1000;
-        HashSet<Node> seenNodes = new HashSet<>();
-        List<HashSet<Node>> trees = new ArrayList<>();
-
-        var sortedGraph = graph.stream().sorted(Comparator.comparingDouble(Edge::getDistance)).toList();
-        for(var i = 0; i < sortedGraph.size() && i < numConnections; i++) {
-            var edge = sortedGraph.get(i);
-            var nodeA = edge.getA();
-            var nodeB = edge.getB();
-
-            // There are three cases we want to address
-            // 1. The nodes are new and have not been added to the map
-            // 2. The nodes have both been seen
-            //    a. We need to check if they exist in the same tree if they do it causes a loop
-            //    b. If they are not in the same tree then we need to merge the two seperate trees together
-            // 3. One of the nodes is seen and the other is in a tree. We just append the detached node to the tree
-            if (!seenNodes.contains(nodeA) && !seenNodes.contains(nodeB)) {
-                var newTree = new HashSet<Node>();
-                newTree.add(nodeA);
-                newTree.add(nodeB);
-                trees.add(newTree);
-            } else if (seenNodes.contains(nodeA) && seenNodes.contains(nodeB)) {
-                var treesContainingNodes = new ArrayList<HashSet<Node>>();
-                for(var tree : trees) {
-                    if (tree.contains(nodeA) && tree.contains(nodeB)) {
-                        break;
-                    } else if (tree.contains(nodeA) || tree.contains(nodeB)) {
-                        treesContainingNodes.add(tree);
-                    }
+        var trees = new DisjointSet(points.size());
 
-                    if (treesContainingNodes.size() == 2) {
-                        break;
-                    }
-                }
-                // Merge the trees
-                if (treesContainingNodes.size() == 2) {
-                    trees.remove(treesContainingNodes.get(1));
-                    treesContainingNodes.get(0).addAll(treesContainingNodes.get(1));
-                }
-            } else {
-                for(var tree : trees) {
-                    if (tree.contains(nodeA) || tree.contains(nodeB)) {
-                        tree.add(nodeA);
-                        tree.add(nodeB);
-                        break;
-                    }
-                }
-            }
-
-            seenNodes.add(nodeA);
-            seenNodes.add(nodeB);
+        var closest = points.nearestPairs(numConnections);
+        for(var i = 0; i < closest.size(); i++) {
+            // Connecting two boxes already in the same tree would make a loop, union ignores those
+            trees.union(closest.getA(i), closest.getB(i));
         }
 
-        trees.sort((set1, set2) -> Integer.compare(set2.size(), set1.size()));
-
-
-        return (long)trees.get(0).size() * (long)trees.get(1).size() * (long)trees.get(2).size();
+        var sizes = trees.componentSizes();
+        Arrays.sort(sizes);
+        return (long)sizes[sizes.length - 1] * (long)sizes[sizes.length - 2] * (long)sizes[sizes.length - 3];
     }
 
     // Part 2 is the same as Part 1 we however instead of just 1000 shortest connections
     // we allow the tree to run to completion and use the last edge to be added to the tree to do some math with the nodes.
+    // That is the longest edge of the minimum spanning tree, which the k-d tree builds without listing every pair
     // Answer: 9259958565
     public Long solvePart2() {
-        var data = LoadTextFile();
-        var graph = ConstructTree(data);
-        HashSet<Node> seenNodes = new HashSet<>();
-        List<HashSet<Node>> trees = new ArrayList<>();
-
-
-
-        var sortedGraph = graph.stream().sorted(Comparator.comparingDouble(Edge::getDistance)).toList();
-        var lastEdge = sortedGraph.get(0);
-
-        for(var i = 0; i < sortedGraph.size(); i++) {
-            var edge = sortedGraph.get(i);
-            var nodeA = edge.getA();
-            var nodeB = edge.getB();
-
-            // If the nodes are not found in the tree we start making a new connection
-            if (!seenNodes.contains(nodeA) && !seenNodes.contains(nodeB)) {
-                var newTree = new HashSet<Node>();
-                newTree.add(nodeA);
-                newTree.add(nodeB);
-                trees.add(newTree);
-            } else if (seenNodes.contains(nodeA) && seenNodes.contains(nodeB)) {
-                var treesContainingNodes = new ArrayList<HashSet<Node>>();
-                for(var tree : trees) {
-                    if (tree.contains(nodeA) && tree.contains(nodeB)) {
-                        break;
-                    } else if (tree.contains(nodeA) || tree.contains(nodeB)) {
-                        treesContainingNodes.add(tree);
-                    }
-
-                    if (treesContainingNodes.size() == 2) {
-                        break;
-                    }
-                }
-                // Merge the trees
-                if (treesContainingNodes.size() == 2) {
-                    trees.remove(treesContainingNodes.get(1));
-                    treesContainingNodes.get(0).addAll(treesContainingNodes.get(1));
-                    lastEdge = edge;
-                }
-            } else {
-                for(var tree : trees) {
-                    if (tree.contains(nodeA) || tree.contains(nodeB)) {
-                        tree.add(nodeA);
-                        tree.add(nodeB);
-                        lastEdge = edge;
-                        break;
-                    }
-                }
-            }
-
-            seenNodes.add(nodeA);
-            seenNodes.add(nodeB);
-        }
+        var points = getParsedInput();
+        var spanningTree = new KdTree(points).minimumSpanningTree();
+        var lastEdge = spanningTree.get(spanningTree.size() - 1);
 
-        return (long)((long)lastEdge.getA().getX() * (long)lastEdge.getB().getX());
+        return lastEdge.getA().getX() * lastEdge.getB().getX();
     }
 
 
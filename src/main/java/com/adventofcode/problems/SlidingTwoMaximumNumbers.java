@@ -1,13 +1,10 @@
 package com.adventofcode.problems;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
 
-public class SlidingTwoMaximumNumbers extends AdventOfCode {
+public class SlidingTwoMaximumNumbers extends AdventOfCode<List<int[]>> {
 
     public SlidingTwoMaximumNumbers(String filename, boolean useExample) {
         super(filename, useExample);
@@ -45,14 +42,14 @@ public class SlidingTwoMaximumNumbers extends AdventOfCode {
         }
     }
 
-    private List<int[]> LoadTextFile() {
-        try (InputStream in = ReadFile()) {
-            if (in == null) throw new FileNotFoundException("Resource not found");
-
-            var content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
-            return Arrays.stream(content.split("\r\n")).map(s -> {
-                return s.chars().map(i -> i - '0').toArray();
-            }).toList();
+    @Override
+    protected List<int[]> LoadTextFile() {
+        try {
+            var numbers = new ArrayList<int[]>();
+            for (var line : ReadLines()) {
+                numbers.add(line.chars().map(i -> i - '0').toArray());
+            }
+            return numbers;
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -69,7 +66,7 @@ public class SlidingTwoMaximumNumbers extends AdventOfCode {
     // Given a number 987654321111111 we want to find the two digits that will make the biggest number in this case 98
     // In 811111111111119, you can make the largest joltage possible by turning on the batteries labeled 8 and 9, producing 89 jolts.
     public long findTwoDigitsToMakeLargestNumber(int size) {
-        var numbers = LoadTextFile();
+        var numbers = getParsedInput();
         var result = numbers.stream().map(array -> {
             var queue = new FixedSizeQueue(size);
             for(var i = 0; i < array.length; i++) {
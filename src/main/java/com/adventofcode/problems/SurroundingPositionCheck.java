@@ -1,16 +1,13 @@
 package com.adventofcode.problems;
 
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
 
 // We are given an input like ..@@.@@@@. if there are 4 or more rolls in the 8 squares adjacent
 // then we are unable to pick up the roll here ..xx.xx@x. we can see an example
-public class SurroundingPositionCheck extends AdventOfCode {
+public class SurroundingPositionCheck extends AdventOfCode<List<int[]>> {
     private static int EMPTY = 0;
     private static int ROLL = 1;
     private static int ROLL_TO_REMOVE = 2;
@@ -19,14 +16,14 @@ public class SurroundingPositionCheck extends AdventOfCode {
         super(filename, useExample);
     }
 
-    private List<int[]> LoadTextFile() {
-        try (InputStream in = ReadFile()) {
-            if (in == null) throw new FileNotFoundException("Resource not found");
-
-            var content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
-            return Arrays.stream(content.split("\r\n")).map(s -> {
-                return s.chars().map(i -> i == '@' ? ROLL : EMPTY).toArray();
-            }).toList();
+    @Override
+    protected List<int[]> LoadTextFile() {
+        try {
+            var grid = new ArrayList<int[]>();
+            for (var line : ReadLines()) {
+                grid.add(line.chars().map(i -> i == '@' ? ROLL : EMPTY).toArray());
+            }
+            return grid;
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -35,13 +32,13 @@ public class SurroundingPositionCheck extends AdventOfCode {
 
     // Answer is 1486
     public Integer solvePart1() {
-        var input = LoadTextFile();
+        var input = copyGrid(getParsedInput());
         return findNumberOfRolls(input, 1, 4);
     }
 
     // Answer is 9024
     public Integer solvePart2() {
-        var input = LoadTextFile();
+        var input = copyGrid(getParsedInput());
         var result = 0;
         var itr = 0;
         do {
@@ -52,6 +49,11 @@ public class SurroundingPositionCheck extends AdventOfCode {
         return result;
     }
 
+    // Both parts mark and remove rolls in place so they work on their own copy of the parsed grid
+    private List<int[]> copyGrid(List<int[]> input_grid) {
+        return input_grid.stream().map(int[]::clone).toList();
+    }
+
     /**
      * We keep a rolling number of the amount of rolls adjacent
      * we then add one on and as the window passes we subtract a roll off
@@ -0,0 +1,133 @@
+package com.adventofcode.utilities;
+
+/**
+ * Keeps the k closest pairs offered to it using a bounded max heap, so selecting k out of E pairs costs
+ * O(E log k) and k slots of memory instead of sorting all of them.
+ * Distances are squared longs and a pair is packed into one long as (lower id << 32) | higher id, nothing is boxed.
+ * Pairs at the same distance are ordered by their packed ids.
+ *
+ * Call sort() once everything has been offered, afterwards the pairs can be read closest first by index.
+ */
+public class ClosestPairs {
+    private final int capacity;
+    private final long[] distances;
+    private final long[] pairs;
+    private int size;
+    private boolean sorted;
+
+    public ClosestPairs(int capacity) {
+        this.capacity = capacity;
+        this.distances = new long[capacity];
+        this.pairs = new long[capacity];
+    }
+
+    public static long pack(int a, int b) {
+        return ((long) Math.min(a, b) << 32) | Math.max(a, b);
+    }
+
+    public static int first(long pair) {
+        return (int) (pair >>> 32);
+    }
+
+    public static int second(long pair) {
+        return (int) pair;
+    }
+
+    private static boolean before(long distance, long pair, long otherDistance, long otherPair) {
+        return distance < otherDistance || (distance == otherDistance && pair < otherPair);
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    // Furthest distance currently kept, a pair further than this can be skipped once the selection is full
+    public long worstDistance() {
+        return size == 0 ? Long.MAX_VALUE : distances[0];
+    }
+
+    // Returns true if the pair was kept
+    public boolean offer(long squaredDistance, int a, int b) {
+        assert !sorted;
+        var pair = pack(a, b);
+        if (size < capacity) {
+            distances[size] = squaredDistance;
+            pairs[size] = pair;
+            siftUp(size++);
+            return true;
+        }
+        if (capacity > 0 && before(squaredDistance, pair, distances[0], pairs[0])) {
+            distances[0] = squaredDistance;
+            pairs[0] = pair;
+            siftDown(0, size);
+            return true;
+        }
+        return false;
+    }
+
+    // Heap sort in place, closest pair first
+    public ClosestPairs sort() {
+        if (!sorted) {
+            for (var end = size - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+            sorted = true;
+        }
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getA(int index) {
+        assert sorted;
+        return first(pairs[index]);
+    }
+
+    public int getB(int index) {
+        assert sorted;
+        return second(pairs[index]);
+    }
+
+    public long getSquaredDistance(int index) {
+        assert sorted;
+        return distances[index];
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            var parent = (i - 1) / 2;
+            if (!before(distances[parent], pairs[parent], distances[i], pairs[i])) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i, int end) {
+        while (true) {
+            var largest = i;
+            var left = 2 * i + 1;
+            var right = left + 1;
+            if (left < end && before(distances[largest], pairs[largest], distances[left], pairs[left])) largest = left;
+            if (right < end && before(distances[largest], pairs[largest], distances[right], pairs[right])) largest = right;
+            if (largest == i) {
+                return;
+            }
+            swap(i, largest);
+            i = largest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        var distance = distances[a];
+        distances[a] = distances[b];
+        distances[b] = distance;
+        var pair = pairs[a];
+        pairs[a] = pairs[b];
+        pairs[b] = pair;
+    }
+}
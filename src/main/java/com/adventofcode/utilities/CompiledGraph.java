@@ -0,0 +1,290 @@
+package com.adventofcode.utilities;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A directed graph with its node names interned to the int ids 0..n-1 and its edges in compressed sparse row form:
+ * the edges leaving node v are targets[offsets[v]] .. targets[offsets[v + 1] - 1].
+ *
+ * A topological order is computed once with Kahn's algorithm, path counts are then a single iterative pass over a
+ * long[] in reverse topological order, no recursion and no hashing per node.
+ * The passes here need the graph to be acyclic, isAcyclic() tells whether it is. A cyclic graph is condensed into its
+ * strongly connected components instead (see StronglyConnectedComponents), which PathCounter counts on.
+ */
+public class CompiledGraph {
+    private final String[] names;
+    private final HashMap<String, Integer> ids;
+    private final int[] offsets;
+    private final int[] targets;
+    // Every node appears before all the nodes it has an edge to, shorter than the node count when there is a cycle
+    private final int[] topologicalOrder;
+    // Position of every node in topologicalOrder, only filled in when the graph is acyclic
+    private final int[] topologicalIndex;
+    private StronglyConnectedComponents components;
+
+    private CompiledGraph(String[] names, HashMap<String, Integer> ids, int[] offsets, int[] targets) {
+        this.names = names;
+        this.ids = ids;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.topologicalOrder = kahn();
+        this.topologicalIndex = new int[names.length];
+        if (isAcyclic()) {
+            for (var i = 0; i < topologicalOrder.length; i++) {
+                topologicalIndex[topologicalOrder[i]] = i;
+            }
+        }
+    }
+
+    public int nodeCount() {
+        return names.length;
+    }
+
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    // The id of a node or -1 when the graph has no node of that name
+    public int id(String name) {
+        var id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    public int outDegree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    // The i-th node the given node has an edge to, 0 <= i < outDegree(node)
+    public int target(int node, int i) {
+        return targets[offsets[node] + i];
+    }
+
+    public boolean isAcyclic() {
+        return topologicalOrder.length == names.length;
+    }
+
+    public int[] topologicalOrder() {
+        requireAcyclic();
+        return topologicalOrder.clone();
+    }
+
+    // Where the node sits in the topological order, a node can only reach nodes with a larger index
+    public int topologicalIndex(int node) {
+        requireAcyclic();
+        return topologicalIndex[node];
+    }
+
+    // The strongly connected components, found the first time they are asked for
+    public synchronized StronglyConnectedComponents components() {
+        if (components == null) {
+            components = StronglyConnectedComponents.of(this);
+        }
+        return components;
+    }
+
+    // The node names of every cycle, one list per strongly connected component that has a cycle
+    public List<List<String>> cycles() {
+        return isAcyclic() ? List.of() : components().cycles(this);
+    }
+
+    private void requireAcyclic() {
+        if (!isAcyclic()) {
+            throw new IllegalStateException("Paths can only be counted on an acyclic graph, "
+                    + (names.length - topologicalOrder.length) + " nodes are on or behind a cycle");
+        }
+    }
+
+    private int[] kahn() {
+        var n = names.length;
+        var inDegree = new int[n];
+        for (var target : targets) {
+            inDegree[target]++;
+        }
+        var order = new int[n];
+        var tail = 0;
+        for (var node = 0; node < n; node++) {
+            if (inDegree[node] == 0) {
+                order[tail++] = node;
+            }
+        }
+        for (var head = 0; head < tail; head++) {
+            var node = order[head];
+            for (var edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                if (--inDegree[targets[edge]] == 0) {
+                    order[tail++] = targets[edge];
+                }
+            }
+        }
+        return tail == n ? order : Arrays.copyOf(order, tail);
+    }
+
+    // Number of paths from every node to the sink, the sink counts as one path and its own edges are not followed
+    public long[] pathsTo(int sink) {
+        requireAcyclic();
+        var paths = new long[names.length];
+        paths[sink] = 1;
+        for (var i = topologicalOrder.length - 1; i >= 0; i--) {
+            var node = topologicalOrder[i];
+            if (node == sink) {
+                continue;
+            }
+            var count = 0L;
+            for (var edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                count += paths[targets[edge]];
+            }
+            paths[node] = count;
+        }
+        return paths;
+    }
+
+    // Number of paths from the source to every node, the forward counterpart of pathsTo
+    public long[] pathsFrom(int source) {
+        requireAcyclic();
+        var paths = new long[names.length];
+        paths[source] = 1;
+        // Nodes before the source in the order cannot be reached from it
+        for (var i = topologicalIndex[source]; i < topologicalOrder.length; i++) {
+            var node = topologicalOrder[i];
+            var count = paths[node];
+            if (count == 0) {
+                continue;
+            }
+            for (var edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                paths[targets[edge]] += count;
+            }
+        }
+        return paths;
+    }
+
+    // pathsFrom with overflow checks, throws ArithmeticException as soon as a count no longer fits in a long
+    public long[] pathsFromExact(int source) {
+        requireAcyclic();
+        var paths = new long[names.length];
+        paths[source] = 1;
+        for (var i = topologicalIndex[source]; i < topologicalOrder.length; i++) {
+            var node = topologicalOrder[i];
+            var count = paths[node];
+            if (count == 0) {
+                continue;
+            }
+            for (var edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                paths[targets[edge]] = Math.addExact(paths[targets[edge]], count);
+            }
+        }
+        return paths;
+    }
+
+    // pathsFrom in arbitrary precision, for counts that overflow a long
+    public BigInteger[] pathsFromBig(int source) {
+        requireAcyclic();
+        var paths = new BigInteger[names.length];
+        Arrays.fill(paths, BigInteger.ZERO);
+        paths[source] = BigInteger.ONE;
+        for (var i = topologicalIndex[source]; i < topologicalOrder.length; i++) {
+            var node = topologicalOrder[i];
+            var count = paths[node];
+            if (count.signum() == 0) {
+                continue;
+            }
+            for (var edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                paths[targets[edge]] = paths[targets[edge]].add(count);
+            }
+        }
+        return paths;
+    }
+
+    // pathsFrom modulo m, m must be below 2^62 so the sum of two residues cannot overflow
+    public long[] pathsFromModulo(int source, long modulus) {
+        requireAcyclic();
+        var paths = new long[names.length];
+        paths[source] = 1 % modulus;
+        for (var i = topologicalIndex[source]; i < topologicalOrder.length; i++) {
+            var node = topologicalOrder[i];
+            var count = paths[node];
+            if (count == 0) {
+                continue;
+            }
+            for (var edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                var sum = paths[targets[edge]] + count;
+                paths[targets[edge]] = sum >= modulus ? sum - modulus : sum;
+            }
+        }
+        return paths;
+    }
+
+    public long countPaths(int source, int sink) {
+        return pathsTo(sink)[source];
+    }
+
+    // Counts by name, a name missing from the graph has no paths
+    public long countPaths(String source, String sink) {
+        var sourceId = id(source);
+        var sinkId = id(sink);
+        return sourceId < 0 || sinkId < 0 ? 0 : countPaths(sourceId, sinkId);
+    }
+
+    /**
+     * Collects the edges, interning each name the first time it is seen. Edges are kept in primitive arrays until
+     * build() sorts them into rows with a counting sort.
+     */
+    public static class Builder {
+        private final HashMap<String, Integer> ids = new HashMap<>();
+        private String[] names = new String[16];
+        private int[] edgeFrom = new int[16];
+        private int[] edgeTo = new int[16];
+        private int edges;
+
+        public int intern(String name) {
+            var id = ids.get(name);
+            if (id != null) {
+                return id;
+            }
+            var newId = ids.size();
+            if (newId == names.length) {
+                names = Arrays.copyOf(names, newId * 2);
+            }
+            names[newId] = name;
+            ids.put(name, newId);
+            return newId;
+        }
+
+        public Builder addEdge(String from, String to) {
+            return addEdge(intern(from), intern(to));
+        }
+
+        public Builder addEdge(int from, int to) {
+            if (edges == edgeFrom.length) {
+                edgeFrom = Arrays.copyOf(edgeFrom, edges * 2);
+                edgeTo = Arrays.copyOf(edgeTo, edges * 2);
+            }
+            edgeFrom[edges] = from;
+            edgeTo[edges] = to;
+            edges++;
+            return this;
+        }
+
+        public CompiledGraph build() {
+            var n = ids.size();
+            var offsets = new int[n + 1];
+            for (var i = 0; i < edges; i++) {
+                offsets[edgeFrom[i] + 1]++;
+            }
+            for (var node = 0; node < n; node++) {
+                offsets[node + 1] += offsets[node];
+            }
+            var targets = new int[edges];
+            var next = Arrays.copyOf(offsets, n);
+            for (var i = 0; i < edges; i++) {
+                targets[next[edgeFrom[i]]++] = edgeTo[i];
+            }
+            return new CompiledGraph(Arrays.copyOf(names, n), new HashMap<>(ids), offsets, targets);
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package com.adventofcode.utilities;
+
+import java.util.Arrays;
+
+/**
+ * Fewest button presses to bring a row of counters from zero up to their targets, where every press of a button adds
+ * one to a fixed set of counters. Buttons are long bit masks (bit i is counter i), so at most 64 counters.
+ *
+ * This is the integer program "A x = c, x >= 0 integer, minimise sum x" for a 0/1 matrix A, solved directly:
+ * - A is row reduced with fraction free integer elimination, which leaves every pivot button expressed through the
+ *   free buttons: x_pivot = (rhs - sum coefficient * x_free) / pivotCoefficient, exactly, without rationals.
+ * - A button can be pressed at most as often as the smallest target of the counters it adds to, which bounds every
+ *   button. Each row then limits what its free buttons can add up to, and the free buttons' bounds are narrowed to
+ *   what every row allows.
+ * - The free buttons are enumerated depth first. Before a free button is assigned, each row narrows its values to
+ *   those that still leave the row's pivot reachable as a non negative count within its bound by some setting of the
+ *   free buttons after it, so a dead branch is cut at the first button that makes it dead. A branch is also cut when
+ *   even the cheapest setting of the remaining free buttons in the linear relaxation cannot beat the best total.
+ *
+ * The search is exponential in the number of free buttons. Machines with too many free buttons, a search space or a
+ * node count over the limits, or entries that overflow during elimination are answered with TOO_LARGE, the caller
+ * then needs a general solver. Scratch arrays are kept between calls, a solver is not thread safe.
+ */
+public class CounterPressSolver {
+    public static final long UNREACHABLE = -1;
+    // The machine is beyond what the search takes on, see the limits
+    public static final long TOO_LARGE = -2;
+
+    // Past 4 free buttons a general ILP solver is faster on random machines with targets in the hundreds, at 4 they
+    // are about even. The node budget is a few milliseconds of search
+    public static final int DEFAULT_MAX_FREE_BUTTONS = 4;
+    // Product of the free buttons' narrowed ranges, and search nodes visited, before giving up
+    public static final long DEFAULT_MAX_SEARCH_SPACE = 1L << 36;
+    public static final long DEFAULT_MAX_NODES = 1L << 16;
+    // Slack for the floating point lower bound on the total presses
+    private static final double EPSILON = 1e-6;
+    private static final int NARROWING_PASSES = 4;
+
+    private int maxFreeButtons = DEFAULT_MAX_FREE_BUTTONS;
+    private long maxSearchSpace = DEFAULT_MAX_SEARCH_SPACE;
+    private long maxNodes = DEFAULT_MAX_NODES;
+
+    private long[] matrix = new long[0];
+    private int[] pivotColumns = new int[0];
+    private int[] freeColumns = new int[0];
+    private long[] bounds = new long[0];
+    private long[] residuals = new long[0];
+    // Per row: the largest residual that keeps its pivot within bound (pivot coefficient * pivot bound)
+    private long[] rowLimits = new long[0];
+    // Per free index and row, the least and the most the free buttons from that index on can take off the row's
+    // residual, (freeCount + 1) rows of rank entries, the last one all zero
+    private long[] reachLow = new long[0];
+    private long[] reachHigh = new long[0];
+    // Per free index, the cheapest the free buttons from that index on can change the total presses by, each press
+    // of a free button changes the total by its own press minus what it takes off the pivots
+    private double[] pressCost = new double[0];
+    private double[] costReach = new double[1];
+    private int columns;
+    private int rank;
+    private int freeCount;
+    private long best;
+    private long nodes;
+    // The presses a free button can still take, see narrow()
+    private long rangeLow;
+    private long rangeHigh;
+
+    public void setMaxFreeButtons(int maxFreeButtons) {
+        this.maxFreeButtons = maxFreeButtons;
+    }
+
+    public void setMaxSearchSpace(long maxSearchSpace) {
+        this.maxSearchSpace = maxSearchSpace;
+    }
+
+    public void setMaxNodes(long maxNodes) {
+        this.maxNodes = maxNodes;
+    }
+
+    // The fewest presses, UNREACHABLE when no presses give the targets, TOO_LARGE when the search gave up
+    public long minPresses(long[] buttons, int[] targets) {
+        var counters = targets.length;
+        if (counters > Long.SIZE) {
+            throw new IllegalArgumentException("At most " + Long.SIZE + " counters are supported, found " + counters);
+        }
+        var buttonCount = buttons.length;
+        // One row per counter, the buttons' columns then the target
+        columns = buttonCount + 1;
+        if (matrix.length < counters * columns) {
+            matrix = new long[counters * columns];
+        }
+        if (pivotColumns.length < counters) {
+            pivotColumns = new int[counters];
+            residuals = new long[counters];
+            rowLimits = new long[counters];
+        }
+        if (freeColumns.length < buttonCount) {
+            freeColumns = new int[buttonCount];
+            bounds = new long[buttonCount];
+            pressCost = new double[buttonCount];
+            costReach = new double[buttonCount + 1];
+        }
+
+        Arrays.fill(matrix, 0, counters * columns, 0);
+        for (var counter = 0; counter < counters; counter++) {
+            matrix[counter * columns + buttonCount] = targets[counter];
+        }
+        for (var button = 0; button < buttonCount; button++) {
+            var bound = Long.MAX_VALUE;
+            var mask = buttons[button];
+            // A shift by 64 is a shift by 0, with 64 counters every bit is a counter
+            if (counters < Long.SIZE && (mask >>> counters) != 0) {
+                throw new IllegalArgumentException("Button " + button + " adds to a counter past the last target");
+            }
+            while (mask != 0) {
+                var counter = Long.numberOfTrailingZeros(mask);
+                matrix[counter * columns + button] = 1;
+                bound = Math.min(bound, targets[counter]);
+                mask &= mask - 1;
+            }
+            // A button that adds to nothing never helps
+            bounds[button] = bound == Long.MAX_VALUE ? 0 : bound;
+        }
+
+        try {
+            if (!eliminate(counters, buttonCount)) {
+                return UNREACHABLE;
+            }
+            if (freeCount > maxFreeButtons) {
+                return TOO_LARGE;
+            }
+            for (var row = 0; row < rank; row++) {
+                residuals[row] = matrix[row * columns + buttonCount];
+                rowLimits[row] = Math.multiplyExact(matrix[row * columns + pivotColumns[row]], bounds[pivotColumns[row]]);
+            }
+            if (!narrowFreeBounds()) {
+                return UNREACHABLE;
+            }
+            if (searchSpace() > maxSearchSpace) {
+                return TOO_LARGE;
+            }
+            prepareReach();
+        } catch (ArithmeticException e) {
+            return TOO_LARGE;
+        }
+
+        best = Long.MAX_VALUE;
+        nodes = 0;
+        search(0, 0);
+        if (nodes > maxNodes) {
+            return TOO_LARGE;
+        }
+        return best == Long.MAX_VALUE ? UNREACHABLE : best;
+    }
+
+    // Integer row reduction, every pivot column ends up zero in all rows but its own. Rows are divided by their gcd
+    // after each step to keep the entries small. Returns false when a zero row is left with a non zero target
+    private boolean eliminate(int counters, int buttonCount) {
+        rank = 0;
+        freeCount = 0;
+        for (var column = 0; column < buttonCount; column++) {
+            var pivot = rank;
+            while (pivot < counters && matrix[pivot * columns + column] == 0) {
+                pivot++;
+            }
+            if (pivot == counters) {
+                freeColumns[freeCount++] = column;
+                continue;
+            }
+            swapRows(pivot, rank);
+            var pivotValue = matrix[rank * columns + column];
+            for (var row = 0; row < counters; row++) {
+                var factor = matrix[row * columns + column];
+                if (row == rank || factor == 0) {
+                    continue;
+                }
+                for (var c = 0; c < columns; c++) {
+                    matrix[row * columns + c] = Math.subtractExact(
+                            Math.multiplyExact(matrix[row * columns + c], pivotValue),
+                            Math.multiplyExact(matrix[rank * columns + c], factor));
+                }
+                normalise(row);
+            }
+            pivotColumns[rank++] = column;
+        }
+
+        for (var row = rank; row < counters; row++) {
+            if (matrix[row * columns + buttonCount] != 0) {
+                return false;
+            }
+        }
+        // Keep every pivot positive so the division in evaluate() has a fixed sign
+        for (var row = 0; row < rank; row++) {
+            if (matrix[row * columns + pivotColumns[row]] < 0) {
+                for (var c = 0; c < columns; c++) {
+                    matrix[row * columns + c] = -matrix[row * columns + c];
+                }
+            }
+        }
+        return true;
+    }
+
+    private void swapRows(int a, int b) {
+        if (a == b) {
+            return;
+        }
+        for (var c = 0; c < columns; c++) {
+            var swap = matrix[a * columns + c];
+            matrix[a * columns + c] = matrix[b * columns + c];
+            matrix[b * columns + c] = swap;
+        }
+    }
+
+    private void normalise(int row) {
+        var gcd = 0L;
+        for (var c = 0; c < columns; c++) {
+            gcd = gcd(gcd, Math.abs(matrix[row * columns + c]));
+        }
+        if (gcd > 1) {
+            for (var c = 0; c < columns; c++) {
+                matrix[row * columns + c] /= gcd;
+            }
+        }
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            var t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+
+    // Narrows every free button's bound to the presses all rows allow given the other free buttons' bounds, a few
+    // passes as one narrowed bound can narrow others. Returns false when a free button has no value left
+    private boolean narrowFreeBounds() {
+        for (var pass = 0; pass < NARROWING_PASSES; pass++) {
+            prepareReach();
+            var changed = false;
+            for (var index = 0; index < freeCount; index++) {
+                var column = freeColumns[index];
+                rangeLow = 0;
+                rangeHigh = bounds[column];
+                for (var row = 0; row < rank; row++) {
+                    var coefficient = matrix[row * columns + column];
+                    var contribution = coefficient * bounds[column];
+                    narrow(coefficient, residuals[row], reachLow[row] - Math.min(contribution, 0),
+                            reachHigh[row] - Math.max(contribution, 0), rowLimits[row]);
+                }
+                if (rangeLow > rangeHigh) {
+                    return false;
+                }
+                if (rangeHigh < bounds[column]) {
+                    bounds[column] = rangeHigh;
+                    changed = true;
+                }
+            }
+            if (!changed) {
+                break;
+            }
+        }
+        return true;
+    }
+
+    // Narrows rangeLow..rangeHigh, the presses of a free button with this coefficient in a row, to those that leave
+    // residual - coefficient * presses - rest within 0..rowLimit for some rest in otherLow..otherHigh, what the
+    // other free buttons can still take off the row
+    private void narrow(long coefficient, long residual, long otherLow, long otherHigh, long rowLimit) {
+        if (coefficient > 0) {
+            rangeHigh = Math.min(rangeHigh, Math.floorDiv(residual - otherLow, coefficient));
+            rangeLow = Math.max(rangeLow, -Math.floorDiv(otherHigh + rowLimit - residual, coefficient));
+        } else if (coefficient < 0) {
+            rangeHigh = Math.min(rangeHigh, Math.floorDiv(rowLimit + otherHigh - residual, -coefficient));
+            rangeLow = Math.max(rangeLow, -Math.floorDiv(residual - otherLow, -coefficient));
+        } else if (residual < otherLow || residual - otherHigh > rowLimit) {
+            rangeLow = 1;
+            rangeHigh = 0;
+        }
+    }
+
+    // Number of settings of the free buttons within their bounds, saturating at Long.MAX_VALUE
+    private long searchSpace() {
+        var space = 1L;
+        for (var index = 0; index < freeCount; index++) {
+            var values = bounds[freeColumns[index]] + 1;
+            if (space > Long.MAX_VALUE / values) {
+                return Long.MAX_VALUE;
+            }
+            space *= values;
+        }
+        return space;
+    }
+
+    // Fills reachLow, reachHigh and costReach from the free buttons' bounds. Throws ArithmeticException when a
+    // residual the search could form, or a bound it derives from one, would not fit in a long
+    private void prepareReach() {
+        var size = (freeCount + 1) * rank;
+        if (reachLow.length < size) {
+            reachLow = new long[size];
+            reachHigh = new long[size];
+        }
+        Arrays.fill(reachLow, freeCount * rank, size, 0);
+        Arrays.fill(reachHigh, freeCount * rank, size, 0);
+        costReach[freeCount] = 0;
+        for (var index = freeCount - 1; index >= 0; index--) {
+            var column = freeColumns[index];
+            var cost = 1.0;
+            for (var row = 0; row < rank; row++) {
+                var coefficient = matrix[row * columns + column];
+                var contribution = Math.multiplyExact(coefficient, bounds[column]);
+                reachLow[index * rank + row] = Math.addExact(reachLow[(index + 1) * rank + row], Math.min(contribution, 0));
+                reachHigh[index * rank + row] = Math.addExact(reachHigh[(index + 1) * rank + row], Math.max(contribution, 0));
+                cost -= (double) coefficient / matrix[row * columns + pivotColumns[row]];
+            }
+            pressCost[index] = cost;
+            costReach[index] = costReach[index + 1] + Math.min(cost * bounds[column], 0);
+        }
+        for (var row = 0; row < rank; row++) {
+            Math.addExact(Math.addExact(Math.abs(residuals[row]), rowLimits[row]),
+                    Math.multiplyExact(2, Math.subtractExact(reachHigh[row], reachLow[row])));
+        }
+    }
+
+    // Assigns free button `index` every value the rows still allow, residuals[row] is the row's target minus the free
+    // buttons assigned so far
+    private void search(int index, long freePresses) {
+        if (++nodes > maxNodes) {
+            return;
+        }
+        if (index == freeCount) {
+            evaluate(freePresses);
+            return;
+        }
+        var column = freeColumns[index];
+        var rest = (index + 1) * rank;
+        rangeLow = 0;
+        rangeHigh = Math.min(bounds[column], best - 1 - freePresses);
+        for (var row = 0; row < rank && rangeLow <= rangeHigh; row++) {
+            narrow(matrix[row * columns + column], residuals[row], reachLow[rest + row], reachHigh[rest + row], rowLimits[row]);
+        }
+        // The total is a whole number no smaller than its linear relaxation, freePresses + presses * cost + what the
+        // pivots and the remaining free buttons add at the least, which must stay below best
+        var cost = pressCost[index];
+        if (best != Long.MAX_VALUE) {
+            var slack = best - 1 + EPSILON - freePresses - costReach[index + 1];
+            for (var row = 0; row < rank; row++) {
+                slack -= (double) residuals[row] / matrix[row * columns + pivotColumns[row]];
+            }
+            if (cost > 0) {
+                rangeHigh = Math.min(rangeHigh, (long) Math.floor(slack / cost));
+            } else if (cost < 0) {
+                rangeLow = Math.max(rangeLow, (long) Math.ceil(slack / cost));
+            } else if (slack < 0) {
+                return;
+            }
+        }
+        // The deeper calls reuse the range fields
+        var low = rangeLow;
+        var high = rangeHigh;
+        if (low > high) {
+            return;
+        }
+        // Cheapest presses first, so good totals are found early and cut more of what follows
+        var step = cost < 0 ? -1 : 1;
+        var presses = step > 0 ? low : high;
+        var last = step > 0 ? high : low;
+        for (var row = 0; row < rank; row++) {
+            residuals[row] -= matrix[row * columns + column] * presses;
+        }
+        while (true) {
+            search(index + 1, freePresses + presses);
+            if (presses == last || step > 0 && freePresses + presses + 1 >= best || nodes > maxNodes) {
+                break;
+            }
+            presses += step;
+            for (var row = 0; row < rank; row++) {
+                residuals[row] -= matrix[row * columns + column] * step;
+            }
+        }
+        // Undo this button's presses before returning to the caller's value
+        for (var row = 0; row < rank; row++) {
+            residuals[row] += matrix[row * columns + column] * presses;
+        }
+    }
+
+    private void evaluate(long freePresses) {
+        var total = freePresses;
+        for (var row = 0; row < rank; row++) {
+            var pivotValue = matrix[row * columns + pivotColumns[row]];
+            var residual = residuals[row];
+            if (residual < 0 || residual % pivotValue != 0) {
+                return;
+            }
+            var presses = residual / pivotValue;
+            if (presses > bounds[pivotColumns[row]]) {
+                return;
+            }
+            total += presses;
+            if (total >= best) {
+                return;
+            }
+        }
+        best = total;
+    }
+}
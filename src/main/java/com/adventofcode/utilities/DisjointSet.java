@@ -0,0 +1,93 @@
+package com.adventofcode.utilities;
+
+/**
+ * Union-find over the int ids 0..n-1 using union by size and path compression, so find and union are
+ * effectively constant time. Every element starts in its own component.
+ * The ids of the last union that actually merged two components are kept, for Kruskal style algorithms that
+ * need to know which edge completed the tree.
+ */
+public class DisjointSet {
+    private final int[] parent;
+    private final int[] size;
+    private int components;
+
+    private int lastUnionA = -1;
+    private int lastUnionB = -1;
+
+    public DisjointSet(int count) {
+        parent = new int[count];
+        size = new int[count];
+        for (var i = 0; i < count; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+        components = count;
+    }
+
+    public int find(int element) {
+        var root = element;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        // Point everything on the path straight at the root
+        while (parent[element] != root) {
+            var next = parent[element];
+            parent[element] = root;
+            element = next;
+        }
+        return root;
+    }
+
+    // Returns false when a and b were already in the same component
+    public boolean union(int a, int b) {
+        var rootA = find(a);
+        var rootB = find(b);
+        if (rootA == rootB) {
+            return false;
+        }
+        if (size[rootA] < size[rootB]) {
+            var temp = rootA;
+            rootA = rootB;
+            rootB = temp;
+        }
+        parent[rootB] = rootA;
+        size[rootA] += size[rootB];
+        components--;
+        lastUnionA = a;
+        lastUnionB = b;
+        return true;
+    }
+
+    public boolean connected(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    public int componentSize(int element) {
+        return size[find(element)];
+    }
+
+    public int componentCount() {
+        return components;
+    }
+
+    // The size of every component in no particular order
+    public int[] componentSizes() {
+        var sizes = new int[components];
+        var index = 0;
+        for (var i = 0; i < parent.length; i++) {
+            if (parent[i] == i) {
+                sizes[index++] = size[i];
+            }
+        }
+        return sizes;
+    }
+
+    // First id of the last union that merged two components, -1 if nothing has been merged yet
+    public int getLastUnionA() {
+        return lastUnionA;
+    }
+
+    public int getLastUnionB() {
+        return lastUnionB;
+    }
+}
@@ -1,35 +1,67 @@
 package com.adventofcode.utilities;
 
 public class Edge {
-    Node A;
-    Node B;
+    PointStore points;
+    int A;
+    int B;
 
-    double distance;
+    long squaredDistance;
 
-    public Edge(Node A, Node B) {
+    public Edge(PointStore points, int A, int B) {
+        this.points = points;
         this.A = A;
         this.B = B;
-        this.distance = Math.sqrt(Math.pow(A.getX() - B.getX(), 2) +
-                Math.pow(A.getY() - B.getY(), 2) +
-                Math.pow(A.getZ() - B.getZ(), 2));
+        this.squaredDistance = points.squaredDistance(A, B);
+    }
+
+    public Edge(Node A, Node B) {
+        this(A.getPoints(), A.getId(), B.getId());
+        assert A.getPoints() == B.getPoints();
     }
 
     public Node getA() {
-        return A;
+        return points.node(A);
     }
 
     public Node getB() {
+        return points.node(B);
+    }
+
+    public int getIndexA() {
+        return A;
+    }
+
+    public int getIndexB() {
         return B;
     }
 
     public double getDistance() {
-        return distance;
+        return Math.sqrt(squaredDistance);
+    }
+
+    public long getSquaredDistance() {
+        return squaredDistance;
+    }
+
+    // Exact key of the unordered pair A-B, A->B and B->A give the same key and no two pairs share one
+    // so it can be used for deduplication in a LongHashSet before an Edge is allocated
+    public static long key(int A, int B) {
+        return ClosestPairs.pack(A, B);
+    }
+
+    public long key() {
+        return key(A, B);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Edge edge)) return false;
+        return points == edge.points && key() == edge.key();
     }
 
     @Override
     public int hashCode() {
-        return (int)(A.getX() * B.getX() +
-                A.getY() * B.getY() +
-                A.getZ() * B.getZ());
+        return Long.hashCode(key() * 0x9E3779B97F4A7C15L);
     }
-}
\ No newline at end of file
+}
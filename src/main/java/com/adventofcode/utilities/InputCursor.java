@@ -0,0 +1,193 @@
+package com.adventofcode.utilities;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A byte level cursor over an input file so solvers can parse without building a String per line.
+ * Files on disk are memory mapped, the bytes are only paged in as the cursor walks over them.
+ *
+ * Lines may end in CR, LF or CRLF, a trailing line break at the end of the file does not start a new line.
+ * Only ASCII input is expected, every method works on single bytes.
+ */
+public class InputCursor {
+    public static final int END = -1;
+
+    private final ByteBuffer buffer;
+    private final int limit;
+    private int position;
+
+    public InputCursor(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.position = buffer.position();
+        this.limit = buffer.limit();
+    }
+
+    // A single mapping is capped at 2GB, larger inputs would need to be mapped in windows
+    public static InputCursor map(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Input is too large to map in one buffer: " + path);
+            }
+            return new InputCursor(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // Fallback for inputs that are not plain files, e.g. resources packed inside a jar
+    public static InputCursor read(InputStream in) throws IOException {
+        return new InputCursor(ByteBuffer.wrap(in.readAllBytes()));
+    }
+
+    public static InputCursor of(String content) {
+        return new InputCursor(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public boolean hasRemaining() {
+        return position < limit;
+    }
+
+    public int position() {
+        return position;
+    }
+
+    public int peek() {
+        return position < limit ? buffer.get(position) : END;
+    }
+
+    public int next() {
+        return position < limit ? buffer.get(position++) : END;
+    }
+
+    // Absolute read that does not move the cursor
+    public byte get(int index) {
+        return buffer.get(index);
+    }
+
+    public void skip(int count) {
+        position = Math.min(position + count, limit);
+    }
+
+    public boolean skipIf(char c) {
+        if (peek() == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    public void expect(char c) {
+        if (!skipIf(c)) {
+            throw new IllegalStateException("Expected '" + c + "' at byte " + position + " but found " + describe(peek()));
+        }
+    }
+
+    public void skipSpaces() {
+        while (position < limit) {
+            var b = buffer.get(position);
+            if (b != ' ' && b != '\t') {
+                break;
+            }
+            position++;
+        }
+    }
+
+    public boolean atEndOfLine() {
+        var b = peek();
+        return b == END || b == '\r' || b == '\n';
+    }
+
+    // Index one past the last byte of the current line, the cursor is not moved
+    public int lineEnd() {
+        var i = position;
+        while (i < limit) {
+            var b = buffer.get(i);
+            if (b == '\r' || b == '\n') {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    // Moves past the rest of the current line and its line break, returns false when there is nothing left
+    public boolean nextLine() {
+        position = lineEnd();
+        if (position < limit && buffer.get(position) == '\r') {
+            position++;
+        }
+        if (position < limit && buffer.get(position) == '\n') {
+            position++;
+        }
+        return position < limit;
+    }
+
+    // Reads the rest of the current line into a String and moves to the next line
+    public String readLine() {
+        var end = lineEnd();
+        var bytes = new byte[end - position];
+        buffer.get(position, bytes);
+        nextLine();
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    // Streams the remaining lines one at a time, the Iterable can only be walked once since it shares this cursor
+    public Iterable<String> lines() {
+        return () -> new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return hasRemaining();
+            }
+
+            @Override
+            public String next() {
+                if (!hasRemaining()) {
+                    throw new NoSuchElementException();
+                }
+                return readLine();
+            }
+        };
+    }
+
+    public static boolean isDigit(int b) {
+        return b >= '0' && b <= '9';
+    }
+
+    // Skips spaces and parses an optionally negative integer at the cursor
+    public long nextLong() {
+        skipSpaces();
+        var negative = skipIf('-');
+        if (!isDigit(peek())) {
+            throw new NumberFormatException("Expected a digit at byte " + position + " but found " + describe(peek()));
+        }
+        var result = 0L;
+        while (position < limit) {
+            var b = buffer.get(position);
+            if (!isDigit(b)) {
+                break;
+            }
+            result = result * 10 + (b - '0');
+            position++;
+        }
+        return negative ? -result : result;
+    }
+
+    public int nextInt() {
+        return Math.toIntExact(nextLong());
+    }
+
+    private static String describe(int b) {
+        return switch (b) {
+            case END -> "end of input";
+            case '\r' -> "'\\r'";
+            case '\n' -> "'\\n'";
+            default -> "'" + (char) b + "'";
+        };
+    }
+}
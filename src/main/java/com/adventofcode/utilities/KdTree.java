@@ -0,0 +1,448 @@
+package com.adventofcode.utilities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A k-d tree over the points of a PointStore, used to find close pairs without materialising all n^2 edges.
+ *
+ * The tree is implicit: order holds the point ids and the node of the range [lo, hi) is the median at (lo + hi) / 2,
+ * split on dimension depth % dimensions. Distances are squared so everything stays in exact long arithmetic.
+ * Pairs at the same distance are ordered by point id so every query has one well defined answer.
+ */
+public class KdTree {
+    private static final int EMPTY = -2;
+    private static final int MIXED = -1;
+
+    private final PointStore points;
+    private final int dimensions;
+    private final int[] order;
+
+    public KdTree(PointStore points) {
+        this.points = points;
+        this.dimensions = points.dimensions();
+        this.order = new int[points.size()];
+        for (var i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        build(0, order.length, 0);
+    }
+
+    public PointStore getPoints() {
+        return points;
+    }
+
+    private void build(int lo, int hi, int depth) {
+        if (hi - lo <= 1) {
+            return;
+        }
+        var mid = (lo + hi) >>> 1;
+        select(lo, hi - 1, mid, depth % dimensions);
+        build(lo, mid, depth + 1);
+        build(mid + 1, hi, depth + 1);
+    }
+
+    // Quickselect so order[k] holds the median of [left, right] on the dimension with smaller values before it
+    private void select(int left, int right, int k, int dimension) {
+        var column = points.column(dimension);
+        while (left < right) {
+            var pivot = column[order[(left + right) >>> 1]];
+            var i = left;
+            var j = right;
+            while (i <= j) {
+                while (column[order[i]] < pivot) i++;
+                while (column[order[j]] > pivot) j--;
+                if (i <= j) {
+                    var temp = order[i];
+                    order[i] = order[j];
+                    order[j] = temp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static boolean closer(long distance, int id, long otherDistance, int otherId) {
+        return distance < otherDistance || (distance == otherDistance && id < otherId);
+    }
+
+    private long planeDistance(int query, int id, int dimension) {
+        var delta = points.get(query, dimension) - points.get(id, dimension);
+        return delta * delta;
+    }
+
+    /**
+     * The k nearest neighbours of a point (excluding itself), closest first.
+     * Returns how many were found, at most min(k, size - 1).
+     */
+    public int nearest(int query, int k, int[] ids, long[] squaredDistances) {
+        var heap = new NeighbourHeap(Math.min(k, points.size() - 1));
+        if (heap.capacity > 0) {
+            nearest(0, order.length, 0, query, heap);
+        }
+        return heap.drainSorted(ids, squaredDistances);
+    }
+
+    private void nearest(int lo, int hi, int depth, int query, NeighbourHeap heap) {
+        if (lo >= hi) {
+            return;
+        }
+        var mid = (lo + hi) >>> 1;
+        var id = order[mid];
+        if (id != query) {
+            heap.offer(points.squaredDistance(query, id), id);
+        }
+        var dimension = depth % dimensions;
+        var goLeft = points.get(query, dimension) < points.get(id, dimension);
+        nearest(goLeft ? lo : mid + 1, goLeft ? mid : hi, depth + 1, query, heap);
+        if (!heap.isFull() || planeDistance(query, id, dimension) <= heap.maxDistance()) {
+            nearest(goLeft ? mid + 1 : lo, goLeft ? hi : mid, depth + 1, query, heap);
+        }
+    }
+
+    // Bounded max heap of the best neighbours found so far, the root is the furthest one
+    private static class NeighbourHeap {
+        final int capacity;
+        final long[] distances;
+        final int[] ids;
+        int size;
+
+        NeighbourHeap(int capacity) {
+            this.capacity = capacity;
+            this.distances = new long[capacity];
+            this.ids = new int[capacity];
+        }
+
+        boolean isFull() {
+            return size == capacity;
+        }
+
+        long maxDistance() {
+            return distances[0];
+        }
+
+        void offer(long distance, int id) {
+            if (size < capacity) {
+                distances[size] = distance;
+                ids[size] = id;
+                siftUp(size++);
+            } else if (closer(distance, id, distances[0], ids[0])) {
+                distances[0] = distance;
+                ids[0] = id;
+                siftDown(0, size);
+            }
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                var parent = (i - 1) / 2;
+                if (!closer(distances[parent], ids[parent], distances[i], ids[i])) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i, int end) {
+            while (true) {
+                var largest = i;
+                var left = 2 * i + 1;
+                var right = left + 1;
+                if (left < end && closer(distances[largest], ids[largest], distances[left], ids[left])) largest = left;
+                if (right < end && closer(distances[largest], ids[largest], distances[right], ids[right])) largest = right;
+                if (largest == i) {
+                    return;
+                }
+                swap(i, largest);
+                i = largest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            var distance = distances[a];
+            distances[a] = distances[b];
+            distances[b] = distance;
+            var id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+        }
+
+        // Heap sort in place then copy out closest first
+        int drainSorted(int[] outIds, long[] outDistances) {
+            for (var end = size - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+            System.arraycopy(ids, 0, outIds, 0, size);
+            System.arraycopy(distances, 0, outDistances, 0, size);
+            return size;
+        }
+    }
+
+    // The k closest pairs, taken from the front of the distance ordered stream
+    public ClosestPairs nearestPairs(int k) {
+        var selection = new ClosestPairs(k);
+        var edges = edgesByDistance();
+        for (var i = 0; i < k && edges.next(); i++) {
+            selection.offer(edges.getSquaredDistance(), edges.getA(), edges.getB());
+        }
+        return selection.sort();
+    }
+
+    public EdgeStream edgesByDistance() {
+        return new EdgeStream(8);
+    }
+
+    /**
+     * Streams every pair of points once in ascending squared distance.
+     * Each point keeps a sorted batch of its nearest neighbours and a heap orders the points by their next unused
+     * neighbour. When a batch runs out it is re-queried at twice the size, so memory stays proportional to the
+     * number of pairs that have actually been streamed rather than n^2.
+     */
+    public class EdgeStream {
+        private final int[][] neighbours;
+        private final long[][] neighbourDistances;
+        private final int[] cursor;
+
+        // Min heap of point ids keyed by the distance to their next neighbour
+        private final int[] heap;
+        private int heapSize;
+
+        private int a = -1;
+        private int b = -1;
+        private long squaredDistance;
+
+        EdgeStream(int batchSize) {
+            var count = points.size();
+            neighbours = new int[count][];
+            neighbourDistances = new long[count][];
+            cursor = new int[count];
+            heap = new int[count];
+            for (var i = 0; i < count; i++) {
+                fill(i, batchSize);
+                if (neighbours[i].length > 0) {
+                    heap[heapSize] = i;
+                    siftUp(heapSize++);
+                }
+            }
+        }
+
+        private void fill(int point, int k) {
+            var size = Math.min(k, points.size() - 1);
+            var ids = new int[size];
+            var distances = new long[size];
+            nearest(point, size, ids, distances);
+            neighbours[point] = ids;
+            neighbourDistances[point] = distances;
+        }
+
+        private long key(int point) {
+            return neighbourDistances[point][cursor[point]];
+        }
+
+        private boolean before(int p, int q) {
+            return key(p) < key(q) || (key(p) == key(q) && p < q);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                var parent = (i - 1) / 2;
+                if (!before(heap[i], heap[parent])) {
+                    break;
+                }
+                var temp = heap[i];
+                heap[i] = heap[parent];
+                heap[parent] = temp;
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                var smallest = i;
+                var left = 2 * i + 1;
+                var right = left + 1;
+                if (left < heapSize && before(heap[left], heap[smallest])) smallest = left;
+                if (right < heapSize && before(heap[right], heap[smallest])) smallest = right;
+                if (smallest == i) {
+                    return;
+                }
+                var temp = heap[i];
+                heap[i] = heap[smallest];
+                heap[smallest] = temp;
+                i = smallest;
+            }
+        }
+
+        // Moves to the next closest pair, returns false once every pair has been streamed
+        public boolean next() {
+            while (heapSize > 0) {
+                var point = heap[0];
+                var neighbour = neighbours[point][cursor[point]];
+                var distance = neighbourDistances[point][cursor[point]];
+                cursor[point]++;
+
+                if (cursor[point] == neighbours[point].length && neighbours[point].length < points.size() - 1) {
+                    // The first entries of the larger batch are the ones already used since the order is total
+                    fill(point, neighbours[point].length * 2);
+                }
+                if (cursor[point] < neighbours[point].length) {
+                    siftDown(0);
+                } else {
+                    heap[0] = heap[--heapSize];
+                    siftDown(0);
+                }
+
+                // Every pair shows up from both ends, only report it from the lower id
+                if (point < neighbour) {
+                    a = point;
+                    b = neighbour;
+                    squaredDistance = distance;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public int getA() {
+            return a;
+        }
+
+        public int getB() {
+            return b;
+        }
+
+        public long getSquaredDistance() {
+            return squaredDistance;
+        }
+    }
+
+    /**
+     * Euclidean minimum spanning tree using Boruvka's algorithm, returned in ascending distance so the last edge
+     * is the one Kruskal would have used to join the final two trees.
+     * Each round finds, for every point, the closest point in another tree. Subtrees of the k-d tree whose points all
+     * belong to the query's tree are skipped, then every tree is joined along its cheapest outgoing edge.
+     */
+    public List<Edge> minimumSpanningTree() {
+        var count = points.size();
+        var trees = new DisjointSet(count);
+        var componentOf = new int[count];
+        var uniform = new int[count];
+        var bestDistance = new long[count];
+        var bestA = new int[count];
+        var bestB = new int[count];
+        var edges = new ArrayList<Edge>(Math.max(count - 1, 0));
+
+        while (trees.componentCount() > 1) {
+            for (var i = 0; i < count; i++) {
+                componentOf[i] = trees.find(i);
+            }
+            label(0, count, componentOf, uniform);
+            Arrays.fill(bestDistance, Long.MAX_VALUE);
+
+            var search = new OutsideSearch(componentOf, uniform);
+            for (var i = 0; i < count; i++) {
+                search.run(i);
+                var component = componentOf[i];
+                if (search.best >= 0 && pairBefore(search.bestDistance, i, search.best,
+                        bestDistance[component], bestA[component], bestB[component])) {
+                    bestDistance[component] = search.bestDistance;
+                    bestA[component] = i;
+                    bestB[component] = search.best;
+                }
+            }
+
+            for (var component = 0; component < count; component++) {
+                if (bestDistance[component] != Long.MAX_VALUE && trees.union(bestA[component], bestB[component])) {
+                    edges.add(new Edge(points, bestA[component], bestB[component]));
+                }
+            }
+        }
+
+        // The same total order as pairBefore, so on tied distances the last edge is still the one Kruskal would pick
+        edges.sort(Comparator.comparingLong(Edge::getSquaredDistance)
+                .thenComparingInt(edge -> Math.min(edge.getIndexA(), edge.getIndexB()))
+                .thenComparingInt(edge -> Math.max(edge.getIndexA(), edge.getIndexB())));
+        return edges;
+    }
+
+    // Total order on pairs by distance then ids, without it Boruvka can pick edges that form a cycle on ties
+    private static boolean pairBefore(long distance, int a, int b, long otherDistance, int otherA, int otherB) {
+        if (distance != otherDistance) {
+            return distance < otherDistance;
+        }
+        if (Math.min(a, b) != Math.min(otherA, otherB)) {
+            return Math.min(a, b) < Math.min(otherA, otherB);
+        }
+        return Math.max(a, b) < Math.max(otherA, otherB);
+    }
+
+    // Marks each k-d node with the tree id shared by its whole subtree, or MIXED
+    private int label(int lo, int hi, int[] componentOf, int[] uniform) {
+        if (lo >= hi) {
+            return EMPTY;
+        }
+        var mid = (lo + hi) >>> 1;
+        var left = label(lo, mid, componentOf, uniform);
+        var right = label(mid + 1, hi, componentOf, uniform);
+        var component = componentOf[order[mid]];
+        var result = (left == EMPTY || left == component) && (right == EMPTY || right == component) ? component : MIXED;
+        uniform[mid] = result;
+        return result;
+    }
+
+    private class OutsideSearch {
+        final int[] componentOf;
+        final int[] uniform;
+        int query;
+        int best;
+        long bestDistance;
+
+        OutsideSearch(int[] componentOf, int[] uniform) {
+            this.componentOf = componentOf;
+            this.uniform = uniform;
+        }
+
+        void run(int query) {
+            this.query = query;
+            best = -1;
+            bestDistance = Long.MAX_VALUE;
+            search(0, order.length, 0);
+        }
+
+        private void search(int lo, int hi, int depth) {
+            if (lo >= hi) {
+                return;
+            }
+            var mid = (lo + hi) >>> 1;
+            if (uniform[mid] == componentOf[query]) {
+                return;
+            }
+            var id = order[mid];
+            if (componentOf[id] != componentOf[query]) {
+                var distance = points.squaredDistance(query, id);
+                if (best < 0 || pairBefore(distance, query, id, bestDistance, query, best)) {
+                    best = id;
+                    bestDistance = distance;
+                }
+            }
+            var dimension = depth % dimensions;
+            var goLeft = points.get(query, dimension) < points.get(id, dimension);
+            search(goLeft ? lo : mid + 1, goLeft ? mid : hi, depth + 1);
+            if (best < 0 || planeDistance(query, id, dimension) <= bestDistance) {
+                search(goLeft ? mid + 1 : lo, goLeft ? hi : mid, depth + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.adventofcode.utilities;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * The path count passes of an acyclic CompiledGraph, evaluated one layer at a time with each layer split across a
+ * ForkJoinPool. Backward passes group the nodes by height (the longest path to a node without edges) and forward
+ * passes by depth (the longest path from a node without incoming edges), so every edge of a node leads into an
+ * earlier layer and all the nodes of a layer can be counted at once.
+ *
+ * Each node pulls its count from the layers before it and only writes its own slot of the shared array, so there
+ * are no locks and no write conflicts. The pool's invoke() between layers publishes one layer's counts to the next.
+ * Layers narrower than minParallelWidth are summed on the calling thread, and when no layer is that wide the
+ * sequential passes of the graph are used as they are and the reversed edges are never built.
+ *
+ * Building the layers is a pass over the whole graph, build them once per graph and share them between counters.
+ */
+public class LayeredPathCounts {
+    // Below this many nodes a layer costs less to sum in place than to split into tasks
+    public static final int DEFAULT_MIN_PARALLEL_WIDTH = 1 << 12;
+
+    private final CompiledGraph graph;
+    private final ForkJoinPool pool;
+    private final int minParallelWidth;
+    // The edges reversed, the nodes with an edge to v are sources[sourceOffsets[v]] .. sources[sourceOffsets[v + 1] - 1].
+    // Only built when the passes run in parallel
+    private final int[] sourceOffsets;
+    private final int[] sources;
+    // Layer l of a pass is nodes[start[l]] .. nodes[start[l + 1] - 1], layer[node] is the layer a node is in
+    private final int[] depthNodes;
+    private final int[] depthStart;
+    private final int[] depth;
+    private final int[] heightNodes;
+    private final int[] heightStart;
+    private final boolean parallel;
+
+    public LayeredPathCounts(CompiledGraph graph, ForkJoinPool pool) {
+        this(graph, pool, DEFAULT_MIN_PARALLEL_WIDTH);
+    }
+
+    public LayeredPathCounts(CompiledGraph graph, ForkJoinPool pool, int minParallelWidth) {
+        if (minParallelWidth < 1) {
+            throw new IllegalArgumentException("The minimum parallel layer width must be positive, got " + minParallelWidth);
+        }
+        this.graph = graph;
+        this.pool = pool;
+        this.minParallelWidth = minParallelWidth;
+
+        var n = graph.nodeCount();
+        var order = graph.topologicalOrder();
+        depth = new int[n];
+        for (var node : order) {
+            for (var i = 0; i < graph.outDegree(node); i++) {
+                var target = graph.target(node, i);
+                depth[target] = Math.max(depth[target], depth[node] + 1);
+            }
+        }
+        var height = new int[n];
+        for (var i = order.length - 1; i >= 0; i--) {
+            var node = order[i];
+            for (var edge = 0; edge < graph.outDegree(node); edge++) {
+                height[node] = Math.max(height[node], height[graph.target(node, edge)] + 1);
+            }
+        }
+        depthStart = layerStarts(depth);
+        depthNodes = bucket(depth, depthStart);
+        heightStart = layerStarts(height);
+        heightNodes = bucket(height, heightStart);
+        parallel = pool.getParallelism() > 1
+                && (widest(depthStart) >= minParallelWidth || widest(heightStart) >= minParallelWidth);
+        if (!parallel) {
+            sourceOffsets = null;
+            sources = null;
+            return;
+        }
+
+        sourceOffsets = new int[n + 1];
+        for (var node = 0; node < n; node++) {
+            for (var i = 0; i < graph.outDegree(node); i++) {
+                sourceOffsets[graph.target(node, i) + 1]++;
+            }
+        }
+        for (var node = 0; node < n; node++) {
+            sourceOffsets[node + 1] += sourceOffsets[node];
+        }
+        sources = new int[graph.edgeCount()];
+        var next = Arrays.copyOf(sourceOffsets, n);
+        for (var node = 0; node < n; node++) {
+            for (var i = 0; i < graph.outDegree(node); i++) {
+                sources[next[graph.target(node, i)]++] = node;
+            }
+        }
+    }
+
+    private static int[] layerStarts(int[] layer) {
+        var layers = 0;
+        for (var l : layer) {
+            layers = Math.max(layers, l + 1);
+        }
+        var start = new int[layers + 1];
+        for (var l : layer) {
+            start[l + 1]++;
+        }
+        for (var l = 0; l < layers; l++) {
+            start[l + 1] += start[l];
+        }
+        return start;
+    }
+
+    private static int[] bucket(int[] layer, int[] start) {
+        var nodes = new int[layer.length];
+        var next = Arrays.copyOf(start, start.length - 1);
+        for (var node = 0; node < layer.length; node++) {
+            nodes[next[layer[node]]++] = node;
+        }
+        return nodes;
+    }
+
+    private static int widest(int[] start) {
+        var widest = 0;
+        for (var l = 0; l + 1 < start.length; l++) {
+            widest = Math.max(widest, start[l + 1] - start[l]);
+        }
+        return widest;
+    }
+
+    public CompiledGraph graph() {
+        return graph;
+    }
+
+    public ForkJoinPool pool() {
+        return pool;
+    }
+
+    // Whether the passes are split across the pool, false when every layer is too narrow to be worth it
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    // Runs count on every node of the layers from firstLayer on, a layer only starts once the one before is done
+    private void forEachLayer(int[] nodes, int[] start, int firstLayer, IntConsumer count) {
+        var grain = Math.max(minParallelWidth / 4, 1);
+        for (var l = firstLayer; l + 1 < start.length; l++) {
+            if (start[l + 1] - start[l] < minParallelWidth) {
+                for (var i = start[l]; i < start[l + 1]; i++) {
+                    count.accept(nodes[i]);
+                }
+            } else {
+                pool.invoke(new LayerSlice(nodes, start[l], start[l + 1], grain, count));
+            }
+        }
+    }
+
+    // Splits a layer in halves until a slice is at most grain nodes
+    static class LayerSlice extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] nodes;
+        private final int start;
+        private final int end;
+        private final int grain;
+        private final IntConsumer count;
+
+        LayerSlice(int[] nodes, int start, int end, int grain, IntConsumer count) {
+            this.nodes = nodes;
+            this.start = start;
+            this.end = end;
+            this.grain = grain;
+            this.count = count;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > grain) {
+                var middle = (start + end) >>> 1;
+                invokeAll(new LayerSlice(nodes, start, middle, grain, count),
+                        new LayerSlice(nodes, middle, end, grain, count));
+                return;
+            }
+            for (var i = start; i < end; i++) {
+                count.accept(nodes[i]);
+            }
+        }
+    }
+
+    // CompiledGraph.pathsTo, the sink counts as one path and its own edges are not followed
+    public long[] pathsTo(int sink) {
+        if (!parallel) {
+            return graph.pathsTo(sink);
+        }
+        var paths = new long[graph.nodeCount()];
+        forEachLayer(heightNodes, heightStart, 0, node -> {
+            if (node == sink) {
+                paths[node] = 1;
+                return;
+            }
+            var count = 0L;
+            for (var i = 0; i < graph.outDegree(node); i++) {
+                count += paths[graph.target(node, i)];
+            }
+            paths[node] = count;
+        });
+        return paths;
+    }
+
+    // CompiledGraph.pathsFrom. Layers before the source's cannot be reached from it and are skipped, the rest of the
+    // nodes of its layer sum to 0 as everything they could be reached from is in earlier layers
+    public long[] pathsFrom(int source) {
+        if (!parallel) {
+            return graph.pathsFrom(source);
+        }
+        var paths = new long[graph.nodeCount()];
+        forEachLayer(depthNodes, depthStart, depth[source], node -> {
+            if (node == source) {
+                paths[node] = 1L;
+                return;
+            }
+            var count = 0L;
+            for (var i = sourceOffsets[node]; i < sourceOffsets[node + 1]; i++) {
+                count += paths[sources[i]];
+            }
+            paths[node] = count;
+        });
+        return paths;
+    }
+
+    // CompiledGraph.pathsFromExact, the ArithmeticException of an overflow is rethrown by the pool
+    public long[] pathsFromExact(int source) {
+        if (!parallel) {
+            return graph.pathsFromExact(source);
+        }
+        var paths = new long[graph.nodeCount()];
+        forEachLayer(depthNodes, depthStart, depth[source], node -> {
+            if (node == source) {
+                paths[node] = 1L;
+                return;
+            }
+            var count = 0L;
+            for (var i = sourceOffsets[node]; i < sourceOffsets[node + 1]; i++) {
+                count = Math.addExact(count, paths[sources[i]]);
+            }
+            paths[node] = count;
+        });
+        return paths;
+    }
+
+    public BigInteger[] pathsFromBig(int source) {
+        if (!parallel) {
+            return graph.pathsFromBig(source);
+        }
+        var paths = new BigInteger[graph.nodeCount()];
+        Arrays.fill(paths, BigInteger.ZERO);
+        forEachLayer(depthNodes, depthStart, depth[source], node -> {
+            if (node == source) {
+                paths[node] = BigInteger.ONE;
+                return;
+            }
+            var count = BigInteger.ZERO;
+            for (var i = sourceOffsets[node]; i < sourceOffsets[node + 1]; i++) {
+                count = count.add(paths[sources[i]]);
+            }
+            paths[node] = count;
+        });
+        return paths;
+    }
+
+    // CompiledGraph.pathsFromModulo, m must be below 2^62 so the sum of two residues cannot overflow
+    public long[] pathsFromModulo(int source, long modulus) {
+        if (!parallel) {
+            return graph.pathsFromModulo(source, modulus);
+        }
+        var paths = new long[graph.nodeCount()];
+        forEachLayer(depthNodes, depthStart, depth[source], node -> {
+            if (node == source) {
+                paths[node] = 1 % modulus;
+                return;
+            }
+            var count = 0L;
+            for (var i = sourceOffsets[node]; i < sourceOffsets[node + 1]; i++) {
+                var sum = count + paths[sources[i]];
+                count = sum >= modulus ? sum - modulus : sum;
+            }
+            paths[node] = count;
+        });
+        return paths;
+    }
+}
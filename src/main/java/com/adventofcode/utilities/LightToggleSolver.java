@@ -0,0 +1,311 @@
+package com.adventofcode.utilities;
+
+import java.util.Arrays;
+
+/**
+ * Fewest button presses to turn a row of lights from all off into a target pattern, where every button toggles a
+ * fixed set of lights. Lights and buttons are long bit masks (bit i is light i) and a press is an XOR.
+ *
+ * Presses commute and pressing a button twice undoes it, so an answer is a subset of the buttons. Depending on
+ * which space is smaller the solver either
+ * - breadth first searches the 2^lights states with a visited bitset, or
+ * - enumerates the 2^buttons subsets in Gray code order, one XOR per subset, or
+ * - solves the presses as a linear system over GF(2): Gaussian elimination leaves a few free buttons and only their
+ *   2^free settings are enumerated, each one fixes all the other buttons, or
+ * - meets in the middle: the subsets of each half of the buttons are enumerated and matched up by their XOR.
+ *
+ * The scratch buffers are kept between calls so a solver allocates nothing once it has seen its largest machine,
+ * a solver is therefore not thread safe.
+ */
+public class LightToggleSolver {
+    public static final int UNREACHABLE = -1;
+
+    // Largest state space / subset count searched directly, 2^22 states is a 512KB bitset and a 16MB queue
+    static final int MAX_BFS_LIGHTS = 22;
+    static final int MAX_ENUMERATED_BUTTONS = 22;
+    // Meet in the middle packs a state and a press count into one long, the state keeps the top 48 bits
+    static final int MAX_MEET_IN_THE_MIDDLE_LIGHTS = 47;
+    static final int MAX_MEET_IN_THE_MIDDLE_BUTTONS = 2 * MAX_ENUMERATED_BUTTONS;
+
+    private long[] visited = new long[0];
+    private int[] queue = new int[0];
+    private long[] halfStates = new long[0];
+    // Elimination scratch: one bitset over the buttons per light, the pivot button of each reduced row,
+    // a solution and one nullspace vector per free button, all bitsets over the buttons
+    private long[] rows = new long[0];
+    private int[] pivots = new int[0];
+    private long[] solution = new long[0];
+    private long[] nullspace = new long[0];
+    private int words;
+    private int rank;
+    private int freeButtons;
+    private boolean consistent;
+
+    // Picks the cheapest search for the machine, throws when none of them fits in memory
+    public int minPresses(long target, long[] buttons, int lights) {
+        if (lights <= MAX_BFS_LIGHTS && lights <= buttons.length) {
+            return minPressesBfs(target, buttons, lights);
+        }
+        if (buttons.length <= MAX_ENUMERATED_BUTTONS) {
+            return minPressesSubsets(target, buttons);
+        }
+        eliminate(target, buttons, lights);
+        if (!consistent) {
+            return UNREACHABLE;
+        }
+        if (freeButtons <= MAX_ENUMERATED_BUTTONS) {
+            return enumerateNullspace();
+        }
+        if (buttons.length <= MAX_MEET_IN_THE_MIDDLE_BUTTONS && lights <= MAX_MEET_IN_THE_MIDDLE_LIGHTS) {
+            return minPressesMeetInTheMiddle(target, buttons);
+        }
+        throw new IllegalArgumentException(buttons.length + " buttons and " + lights + " lights are too many to search");
+    }
+
+    // Level by level BFS from all lights off, the first level containing the target is the answer
+    public int minPressesBfs(long target, long[] buttons, int lights) {
+        if (lights > MAX_BFS_LIGHTS) {
+            throw new IllegalArgumentException("BFS over " + lights + " lights needs 2^" + lights + " states");
+        }
+        if (target == 0) {
+            return 0;
+        }
+        var states = 1 << lights;
+        if (queue.length < states) {
+            queue = new int[states];
+            visited = new long[(states + 63) >>> 6];
+        } else {
+            Arrays.fill(visited, 0, (states + 63) >>> 6, 0);
+        }
+
+        var head = 0;
+        var tail = 0;
+        queue[tail++] = 0;
+        visited[0] = 1;
+        for (var depth = 1; head < tail; depth++) {
+            var levelEnd = tail;
+            while (head < levelEnd) {
+                var state = queue[head++];
+                for (var button : buttons) {
+                    var next = state ^ (int) button;
+                    if (next == target) {
+                        return depth;
+                    }
+                    if ((visited[next >>> 6] & (1L << next)) == 0) {
+                        visited[next >>> 6] |= 1L << next;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+        return UNREACHABLE;
+    }
+
+    // Gray code order changes one button per step, so each subset costs a single XOR
+    public int minPressesSubsets(long target, long[] buttons) {
+        if (buttons.length > MAX_ENUMERATED_BUTTONS) {
+            throw new IllegalArgumentException("Enumerating " + buttons.length + " buttons needs 2^" + buttons.length + " subsets");
+        }
+        if (target == 0) {
+            return 0;
+        }
+        var best = Integer.MAX_VALUE;
+        var state = 0L;
+        var subsets = 1 << buttons.length;
+        for (var i = 1; i < subsets; i++) {
+            state ^= buttons[Integer.numberOfTrailingZeros(i)];
+            if (state == target) {
+                best = Math.min(best, Integer.bitCount(i ^ (i >>> 1)));
+            }
+        }
+        return best == Integer.MAX_VALUE ? UNREACHABLE : best;
+    }
+
+    // Gaussian elimination over GF(2) then the lightest of the 2^free solutions, for many buttons with few free ones
+    public int minPressesGaussian(long target, long[] buttons, int lights) {
+        eliminate(target, buttons, lights);
+        if (!consistent) {
+            return UNREACHABLE;
+        }
+        if (freeButtons > MAX_ENUMERATED_BUTTONS) {
+            throw new IllegalArgumentException(freeButtons + " free buttons are too many to enumerate");
+        }
+        return enumerateNullspace();
+    }
+
+    // Reduces "sum of the pressed buttons = target" to reduced row echelon form, row r is light r and bit i of a row
+    // is button i. Leaves one solution with every free button unpressed and a nullspace vector per free button
+    private void eliminate(long target, long[] buttons, int lights) {
+        if (lights > Long.SIZE) {
+            throw new IllegalArgumentException("At most " + Long.SIZE + " lights are supported, found " + lights);
+        }
+        words = (buttons.length + 63) >>> 6;
+        if (rows.length < lights * words) {
+            rows = new long[lights * words];
+        }
+        if (pivots.length < lights) {
+            pivots = new int[lights];
+        }
+        if (solution.length < words) {
+            solution = new long[words];
+        }
+        Arrays.fill(rows, 0, lights * words, 0);
+        Arrays.fill(solution, 0, words, 0);
+        for (var button = 0; button < buttons.length; button++) {
+            var mask = buttons[button];
+            while (mask != 0) {
+                var light = Long.numberOfTrailingZeros(mask);
+                rows[light * words + (button >>> 6)] |= 1L << button;
+                mask &= mask - 1;
+            }
+        }
+
+        // Bit r of rhs is the right hand side of row r and is swapped and XORed along with it
+        var rhs = target;
+        rank = 0;
+        for (var button = 0; button < buttons.length && rank < lights; button++) {
+            var word = button >>> 6;
+            var bit = 1L << button;
+            var pivot = rank;
+            while (pivot < lights && (rows[pivot * words + word] & bit) == 0) {
+                pivot++;
+            }
+            if (pivot == lights) {
+                continue;
+            }
+            if (pivot != rank) {
+                for (var w = 0; w < words; w++) {
+                    var swap = rows[pivot * words + w];
+                    rows[pivot * words + w] = rows[rank * words + w];
+                    rows[rank * words + w] = swap;
+                }
+                if (((rhs >>> pivot) & 1) != ((rhs >>> rank) & 1)) {
+                    rhs ^= (1L << pivot) | (1L << rank);
+                }
+            }
+            for (var row = 0; row < lights; row++) {
+                if (row != rank && (rows[row * words + word] & bit) != 0) {
+                    for (var w = 0; w < words; w++) {
+                        rows[row * words + w] ^= rows[rank * words + w];
+                    }
+                    rhs ^= ((rhs >>> rank) & 1) << row;
+                }
+            }
+            pivots[rank++] = button;
+        }
+
+        // A zero row with a non zero right hand side is a light no combination of buttons can reach
+        consistent = rank == lights || (rhs >>> rank) == 0;
+        if (!consistent) {
+            return;
+        }
+
+        for (var row = 0; row < rank; row++) {
+            if (((rhs >>> row) & 1) != 0) {
+                solution[pivots[row] >>> 6] |= 1L << pivots[row];
+            }
+        }
+
+        freeButtons = buttons.length - rank;
+        if (freeButtons > MAX_ENUMERATED_BUTTONS) {
+            return;
+        }
+        if (nullspace.length < freeButtons * words) {
+            nullspace = new long[freeButtons * words];
+        }
+        Arrays.fill(nullspace, 0, freeButtons * words, 0);
+        var free = 0;
+        var row = 0;
+        for (var button = 0; button < buttons.length; button++) {
+            if (row < rank && pivots[row] == button) {
+                row++;
+                continue;
+            }
+            // Pressing a free button also flips every pivot button whose row contains it
+            var word = button >>> 6;
+            var bit = 1L << button;
+            nullspace[free * words + word] |= bit;
+            for (var pivotRow = 0; pivotRow < rank; pivotRow++) {
+                if ((rows[pivotRow * words + word] & bit) != 0) {
+                    nullspace[free * words + (pivots[pivotRow] >>> 6)] |= 1L << pivots[pivotRow];
+                }
+            }
+            free++;
+        }
+    }
+
+    // Walks the free button settings in Gray code order, XORing one nullspace vector into the solution per step
+    private int enumerateNullspace() {
+        var best = weight(solution);
+        var settings = 1 << freeButtons;
+        for (var i = 1; i < settings; i++) {
+            var vector = Integer.numberOfTrailingZeros(i) * words;
+            for (var w = 0; w < words; w++) {
+                solution[w] ^= nullspace[vector + w];
+            }
+            best = Math.min(best, weight(solution));
+        }
+        return best;
+    }
+
+    private int weight(long[] bits) {
+        var result = 0;
+        for (var w = 0; w < words; w++) {
+            result += Long.bitCount(bits[w]);
+        }
+        return result;
+    }
+
+    // The first half's subsets are stored as (state, presses) packed and sorted, each subset of the second half then
+    // looks up the state that completes it with a binary search. Equal states sort by presses so the first is the best
+    public int minPressesMeetInTheMiddle(long target, long[] buttons) {
+        if (buttons.length > MAX_MEET_IN_THE_MIDDLE_BUTTONS) {
+            throw new IllegalArgumentException("Meet in the middle over " + buttons.length + " buttons is too large");
+        }
+        var firstHalf = buttons.length / 2;
+        var secondHalf = buttons.length - firstHalf;
+        if (((target | or(buttons)) >>> MAX_MEET_IN_THE_MIDDLE_LIGHTS) != 0) {
+            throw new IllegalArgumentException("Meet in the middle supports at most " + MAX_MEET_IN_THE_MIDDLE_LIGHTS + " lights");
+        }
+
+        var firstSubsets = 1 << firstHalf;
+        if (halfStates.length < firstSubsets) {
+            halfStates = new long[firstSubsets];
+        }
+        var state = 0L;
+        halfStates[0] = 0;
+        for (var i = 1; i < firstSubsets; i++) {
+            state ^= buttons[Integer.numberOfTrailingZeros(i)];
+            halfStates[i] = (state << 16) | Integer.bitCount(i ^ (i >>> 1));
+        }
+        Arrays.sort(halfStates, 0, firstSubsets);
+
+        var best = Integer.MAX_VALUE;
+        state = 0L;
+        var secondSubsets = 1 << secondHalf;
+        for (var i = 0; i < secondSubsets; i++) {
+            if (i > 0) {
+                state ^= buttons[firstHalf + Integer.numberOfTrailingZeros(i)];
+            }
+            var presses = Integer.bitCount(i ^ (i >>> 1));
+            if (presses >= best) {
+                continue;
+            }
+            var index = Arrays.binarySearch(halfStates, 0, firstSubsets, (state ^ target) << 16);
+            // Not found gives the insertion point, which is the smallest press count stored for that state if any
+            var candidate = index >= 0 ? index : -index - 1;
+            if (candidate < firstSubsets && (halfStates[candidate] >>> 16) == (state ^ target)) {
+                best = Math.min(best, presses + (int) (halfStates[candidate] & 0xFFFF));
+            }
+        }
+        return best == Integer.MAX_VALUE ? UNREACHABLE : best;
+    }
+
+    private static long or(long[] masks) {
+        var result = 0L;
+        for (var mask : masks) {
+            result |= mask;
+        }
+        return result;
+    }
+}
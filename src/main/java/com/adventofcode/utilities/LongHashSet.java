@@ -0,0 +1,140 @@
+package com.adventofcode.utilities;
+
+import java.util.Arrays;
+
+/**
+ * A set of primitive longs using open addressing with linear probing, so adding a key does not box it or
+ * allocate an entry. The table is a power of two and doubles once it is half full.
+ *
+ * Keys are stored exactly, unlike a set of hash codes two different keys can never be mistaken for each other.
+ * Zero marks an empty slot in the table, so whether zero itself is in the set is tracked on the side.
+ */
+public class LongHashSet {
+    private static final int MIN_CAPACITY = 16;
+    // The largest power of two table, it holds up to half as many keys before the set refuses to grow
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private final int maxCapacity;
+    private long[] keys;
+    private int mask;
+    private int size;
+    private boolean containsZero;
+
+    public LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongHashSet(int expectedSize) {
+        this(expectedSize, MAX_CAPACITY);
+    }
+
+    // A lower table limit lets the tests fill a set up to it
+    LongHashSet(int expectedSize, int maxCapacity) {
+        if (expectedSize < 0 || expectedSize > maxCapacity / 2) {
+            throw new IllegalArgumentException("Expected size must be between 0 and " + maxCapacity / 2 + ", got " + expectedSize);
+        }
+        this.maxCapacity = maxCapacity;
+        // Smallest power of two at least twice the expected size
+        var capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(expectedSize * 2 - 1, 1)) << 1);
+        keys = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    // Spreads the bits so keys that only differ in their high bits (e.g. packed pairs) land in different slots
+    private static int slot(long key, int mask) {
+        var h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    // Returns false when the key was already in the set
+    public boolean add(long key) {
+        if (key == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        var i = slot(key, mask);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        // Grow before the key goes in, so a set that cannot grow throws without having taken the key
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+            i = slot(key, mask);
+            while (keys[i] != 0) {
+                i = (i + 1) & mask;
+            }
+        }
+        keys[i] = key;
+        size++;
+        return true;
+    }
+
+    public boolean contains(long key) {
+        if (key == 0) {
+            return containsZero;
+        }
+        var i = slot(key, mask);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        containsZero = false;
+        size = 0;
+    }
+
+    // The keys in no particular order
+    public long[] toArray() {
+        var result = new long[size];
+        var index = 0;
+        if (containsZero) {
+            result[index++] = 0;
+        }
+        for (var key : keys) {
+            if (key != 0) {
+                result[index++] = key;
+            }
+        }
+        return result;
+    }
+
+    private void grow() {
+        if (keys.length >= maxCapacity) {
+            throw new IllegalStateException("A LongHashSet holds at most " + maxCapacity / 2 + " keys");
+        }
+        var old = keys;
+        keys = new long[old.length * 2];
+        mask = keys.length - 1;
+        for (var key : old) {
+            if (key == 0) {
+                continue;
+            }
+            var i = slot(key, mask);
+            while (keys[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+        }
+    }
+}
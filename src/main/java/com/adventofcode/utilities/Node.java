@@ -1,27 +1,62 @@
 package com.adventofcode.utilities;
 
+import java.util.ArrayList;
 import java.util.List;
 
+// A view of a single point in a PointStore, the coordinates themselves stay in the store's primitive arrays
 public class Node {
-    List<Long> coordinates;
+    PointStore points;
+    int id;
+
+    public Node(PointStore points, int id) {
+        this.points = points;
+        this.id = id;
+    }
 
     public Node(List<Long> coordinates) {
-        this.coordinates = coordinates;
+        this(PointStore.of(coordinates), 0);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public PointStore getPoints() {
+        return points;
     }
 
-    public Long getX() {
-        return this.coordinates.get(0);
+    public long getX() {
+        return points.getX(id);
     }
 
-    public Long getY() {
-        return this.coordinates.get(1);
+    public long getY() {
+        return points.getY(id);
     }
 
-    public Long getZ() {
-        return this.coordinates.get(2);
+    public long getZ() {
+        return points.getZ(id);
     }
 
+    public long getCoordinate(int dimension) {
+        return points.get(id, dimension);
+    }
+
+    // Boxed copy of the coordinates, avoid in hot loops
     public List<Long> getCoordinates() {
-        return this.coordinates;
+        var coordinates = new ArrayList<Long>(points.dimensions());
+        for (var dimension = 0; dimension < points.dimensions(); dimension++) {
+            coordinates.add(points.get(id, dimension));
+        }
+        return coordinates;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Node node && node.points == points && node.id == id;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(points) * 31 + id;
     }
 }
@@ -0,0 +1,421 @@
+package com.adventofcode.utilities;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Path count queries on a CompiledGraph that share their work. The paths from a node to every other node
+ * (one forward pass) and from every node to a sink (one backward pass) are computed the first time a query needs
+ * them and kept, so asking about the same sources, waypoints and sinks again costs nothing but the lookups.
+ *
+ * A path through waypoints w1 .. wk in that order is a path source -> w1, then w1 -> w2, ..., then wk -> sink, so
+ * its count is the product of the counts of the pieces. In a DAG every path meets the waypoints it visits in
+ * topological order, so "in any order" is the same query with the waypoints sorted by their topological index.
+ *
+ * Counts grow exponentially with the depth of a dense DAG. How a count that no longer fits in a long is handled is
+ * chosen per query, see Overflow.
+ *
+ * On a cyclic graph a node that can go around a cycle and still reach the sink has infinitely many paths to it.
+ * The graph is condensed once per leg (see Condensed): the nodes with infinitely many paths are marked, the nodes left
+ * with a finite, non-zero count form a DAG that is counted like any acyclic graph, so counting stays linear and
+ * never loops. Such counts are reported as INFINITE. Unordered waypoints on a cyclic graph have no topological
+ * order to sort by, every order of them is counted and summed, which is exact whenever the total is finite.
+ *
+ * Given a pool (setPool) the passes of very wide graphs are split across it layer by layer, see LayeredPathCounts.
+ */
+public class PathCounter {
+    /**
+     * WRAP is plain long arithmetic, fastest but silently wrong once a count overflows.
+     * BIG_INTEGER and MODULO first count in long arithmetic with overflow checks, which costs little, and only when a
+     * check fails redo the query in BigInteger (an exact answer) or modulo the counter's prime (the exact answer
+     * modulo the prime).
+     */
+    public enum Overflow {
+        WRAP,
+        BIG_INTEGER,
+        MODULO
+    }
+
+    // The Number result for infinitely many paths, the long queries return INFINITE_COUNT instead
+    public static final Double INFINITE = Double.POSITIVE_INFINITY;
+    public static final long INFINITE_COUNT = -1;
+
+    // Orders of unordered waypoints counted one by one on a cyclic graph, 8! = 40320 at most
+    private static final int MAX_UNORDERED_WAYPOINTS = 8;
+
+    // Stands in for a forward pass whose checked long counts overflowed, so the check is not repeated
+    private static final long[] OVERFLOWED = new long[0];
+
+    private final CompiledGraph graph;
+    private final long modulus;
+    private final HashMap<Integer, long[]> forward = new HashMap<>();
+    private final HashMap<Integer, long[]> backward = new HashMap<>();
+    private final HashMap<Integer, long[]> forwardExact = new HashMap<>();
+    private final HashMap<Integer, BigInteger[]> forwardBig = new HashMap<>();
+    private final HashMap<Integer, long[]> forwardModulo = new HashMap<>();
+    private ForkJoinPool pool;
+    // Built the first time a pass runs with a pool
+    private LayeredPathCounts layered;
+
+    // Keyed by the leg's target and the query's sink
+    private final HashMap<Long, Condensed> condensed = new HashMap<>();
+
+    /**
+     * The graph as seen by the paths of one leg, which end at its target and must not pass the query's sink (a path
+     * is over once it reaches it): the edges of both are cut. infinite marks the nodes that reach a cycle which
+     * still reaches the target, and counter counts the rest, the DAG of nodes with a finite, non-zero count, whose
+     * ids are given by subId (-1 for a node left out).
+     */
+    private record Condensed(boolean[] infinite, int[] subId, PathCounter counter, int subSink) {
+    }
+
+    public PathCounter(CompiledGraph graph) {
+        this.graph = graph;
+        this.modulus = 0;
+    }
+
+    // The modulus is used by Overflow.MODULO, it must be a prime below 2^62
+    public PathCounter(CompiledGraph graph, long prime) {
+        if (prime < 2 || prime >= 1L << 62 || !BigInteger.valueOf(prime).isProbablePrime(30)) {
+            throw new IllegalArgumentException("The modulus must be a prime below 2^62, got " + prime);
+        }
+        this.graph = graph;
+        this.modulus = prime;
+    }
+
+    public CompiledGraph graph() {
+        return graph;
+    }
+
+    // Passes split their layers across the pool from now on, null counts on the calling thread again.
+    // Cyclic graphs pass the pool on to the DAGs they are condensed into
+    public synchronized void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+        this.layered = null;
+        for (var view : condensed.values()) {
+            view.counter().setPool(pool);
+        }
+    }
+
+    // setPool with layers already built for this graph, so counters on the same graph do not each build them
+    public synchronized void setLayers(LayeredPathCounts layers) {
+        if (layers.graph() != graph) {
+            throw new IllegalArgumentException("The layers were built for a different graph");
+        }
+        setPool(layers.pool());
+        this.layered = layers;
+    }
+
+    // The layered passes when there is a pool, null when the passes run sequentially
+    private LayeredPathCounts layered() {
+        if (pool != null && layered == null) {
+            layered = new LayeredPathCounts(graph, pool);
+        }
+        return layered;
+    }
+
+    private synchronized long[] pathsFrom(int source) {
+        return forward.computeIfAbsent(source, node -> layered() == null ? graph.pathsFrom(node) : layered.pathsFrom(node));
+    }
+
+    private synchronized long[] pathsTo(int sink) {
+        return backward.computeIfAbsent(sink, node -> layered() == null ? graph.pathsTo(node) : layered.pathsTo(node));
+    }
+
+    private synchronized long[] pathsFromExact(int source) {
+        return forwardExact.computeIfAbsent(source, node -> {
+            try {
+                return layered() == null ? graph.pathsFromExact(node) : layered.pathsFromExact(node);
+            } catch (ArithmeticException e) {
+                return OVERFLOWED;
+            }
+        });
+    }
+
+    private synchronized BigInteger[] pathsFromBig(int source) {
+        return forwardBig.computeIfAbsent(source, node -> layered() == null ? graph.pathsFromBig(node) : layered.pathsFromBig(node));
+    }
+
+    private synchronized long[] pathsFromModulo(int source) {
+        return forwardModulo.computeIfAbsent(source, node -> layered() == null
+                ? graph.pathsFromModulo(node, modulus) : layered.pathsFromModulo(node, modulus));
+    }
+
+    private synchronized Condensed condensed(int target, int sink) {
+        return condensed.computeIfAbsent((long) target << 32 | sink, key -> condense(target, sink));
+    }
+
+    private Condensed condense(int target, int sink) {
+        var n = graph.nodeCount();
+        var components = StronglyConnectedComponents.of(graph, target, sink);
+        var count = components.count();
+
+        // The nodes bucketed by component
+        var start = new int[count + 1];
+        for (var node = 0; node < n; node++) {
+            start[components.component(node) + 1]++;
+        }
+        for (var c = 0; c < count; c++) {
+            start[c + 1] += start[c];
+        }
+        var members = new int[n];
+        var next = Arrays.copyOf(start, count);
+        for (var node = 0; node < n; node++) {
+            members[next[components.component(node)]++] = node;
+        }
+
+        // Edges only lead to lower numbered components, so those are done by the time a component is reached
+        var reaches = new boolean[count];
+        var infinite = new boolean[count];
+        var targetComponent = components.component(target);
+        for (var c = 0; c < count; c++) {
+            var reach = c == targetComponent;
+            var inf = false;
+            for (var i = start[c]; i < start[c + 1]; i++) {
+                var node = members[i];
+                if (node == target || node == sink) {
+                    continue;
+                }
+                for (var edge = 0; edge < graph.outDegree(node); edge++) {
+                    var to = components.component(graph.target(node, edge));
+                    if (to != c) {
+                        reach |= reaches[to];
+                        inf |= infinite[to];
+                    }
+                }
+            }
+            reaches[c] = reach;
+            infinite[c] = inf || (reach && components.isCyclic(c));
+        }
+
+        var builder = new CompiledGraph.Builder();
+        var subId = new int[n];
+        var infiniteNodes = new boolean[n];
+        for (var node = 0; node < n; node++) {
+            var c = components.component(node);
+            infiniteNodes[node] = infinite[c];
+            subId[node] = reaches[c] && !infinite[c] ? builder.intern(graph.name(node)) : -1;
+        }
+        for (var node = 0; node < n; node++) {
+            if (subId[node] < 0 || node == target || node == sink) {
+                continue;
+            }
+            for (var edge = 0; edge < graph.outDegree(node); edge++) {
+                var to = subId[graph.target(node, edge)];
+                if (to >= 0) {
+                    builder.addEdge(subId[node], to);
+                }
+            }
+        }
+        var sub = builder.build();
+        var counter = modulus == 0 ? new PathCounter(sub) : new PathCounter(sub, modulus);
+        counter.setPool(pool);
+        return new Condensed(infiniteNodes, subId, counter, subId[target]);
+    }
+
+    public long countPaths(int source, int sink) {
+        if (!graph.isAcyclic()) {
+            return countPathsThrough(source, sink, new int[0], true);
+        }
+        return pathsTo(sink)[source];
+    }
+
+    public long countPaths(String source, String sink) {
+        return countPathsThrough(source, sink, List.of(), true);
+    }
+
+    private int[] stops(int[] waypoints, boolean ordered) {
+        if (ordered || waypoints.length < 2) {
+            return waypoints;
+        }
+        return Arrays.stream(waypoints).boxed()
+                .sorted((a, b) -> Integer.compare(graph.topologicalIndex(a), graph.topologicalIndex(b)))
+                .mapToInt(Integer::intValue).toArray();
+    }
+
+    // Paths from the source to the sink that visit every waypoint, in the given order when ordered is true.
+    // Long arithmetic that wraps on overflow, the same as Overflow.WRAP
+    public long countPathsThrough(int source, int sink, int[] waypoints, boolean ordered) {
+        if (!graph.isAcyclic()) {
+            return toLong(countCyclic(source, sink, waypoints, ordered, Overflow.WRAP));
+        }
+        var count = 1L;
+        var from = source;
+        for (var stop : stops(waypoints, ordered)) {
+            count *= pathsFrom(from)[stop];
+            if (count == 0) {
+                return 0;
+            }
+            from = stop;
+        }
+        return count * countPaths(from, sink);
+    }
+
+    // The same query with the overflow handling chosen, the result is a Long unless it was promoted to a BigInteger
+    public Number countPathsThrough(int source, int sink, int[] waypoints, boolean ordered, Overflow overflow) {
+        if (overflow == Overflow.MODULO && modulus == 0) {
+            throw new IllegalStateException("Counting modulo a prime needs a PathCounter created with one");
+        }
+        if (!graph.isAcyclic()) {
+            return countCyclic(source, sink, waypoints, ordered, overflow);
+        }
+        if (overflow == Overflow.WRAP) {
+            return countPathsThrough(source, sink, waypoints, ordered);
+        }
+        var stops = stops(waypoints, ordered);
+        try {
+            return countExact(source, sink, stops);
+        } catch (ArithmeticException e) {
+            return overflow == Overflow.BIG_INTEGER ? countBig(source, sink, stops) : countModulo(source, sink, stops);
+        }
+    }
+
+    private long countExact(int source, int sink, int[] stops) {
+        var count = 1L;
+        var from = source;
+        for (var i = 0; i <= stops.length; i++) {
+            var to = i < stops.length ? stops[i] : sink;
+            var paths = pathsFromExact(from);
+            if (paths == OVERFLOWED) {
+                throw new ArithmeticException("long overflow");
+            }
+            count = Math.multiplyExact(count, paths[to]);
+            if (count == 0) {
+                return 0;
+            }
+            from = to;
+        }
+        return count;
+    }
+
+    private BigInteger countBig(int source, int sink, int[] stops) {
+        var count = BigInteger.ONE;
+        var from = source;
+        for (var i = 0; i <= stops.length; i++) {
+            var to = i < stops.length ? stops[i] : sink;
+            count = count.multiply(pathsFromBig(from)[to]);
+            from = to;
+        }
+        return count;
+    }
+
+    private long countModulo(int source, int sink, int[] stops) {
+        var count = BigInteger.ONE;
+        var prime = BigInteger.valueOf(modulus);
+        var from = source;
+        for (var i = 0; i <= stops.length; i++) {
+            var to = i < stops.length ? stops[i] : sink;
+            count = count.multiply(BigInteger.valueOf(pathsFromModulo(from)[to])).mod(prime);
+            from = to;
+        }
+        return count.longValue();
+    }
+
+    private Number countCyclic(int source, int sink, int[] waypoints, boolean ordered, Overflow overflow) {
+        BigInteger count;
+        if (ordered || waypoints.length < 2) {
+            count = countCyclicLegs(source, sink, waypoints, overflow);
+        } else {
+            if (waypoints.length > MAX_UNORDERED_WAYPOINTS) {
+                throw new IllegalArgumentException("At most " + MAX_UNORDERED_WAYPOINTS
+                        + " unordered waypoints can be counted on a cyclic graph, got " + waypoints.length);
+            }
+            count = BigInteger.ZERO;
+            for (var order : permutations(waypoints)) {
+                var paths = countCyclicLegs(source, sink, order, overflow);
+                if (paths == null) {
+                    return INFINITE;
+                }
+                count = count.add(paths);
+            }
+        }
+        if (count == null) {
+            return INFINITE;
+        }
+        return switch (overflow) {
+            case WRAP -> count.longValue();
+            case BIG_INTEGER -> count.bitLength() < Long.SIZE ? (Number) count.longValue() : count;
+            case MODULO -> count.bitLength() < Long.SIZE ? count.longValue() : count.mod(BigInteger.valueOf(modulus)).longValue();
+        };
+    }
+
+    // The product of the legs between the stops, null when it is infinite. Exact unless the legs wrap
+    private BigInteger countCyclicLegs(int source, int sink, int[] stops, Overflow overflow) {
+        // The legs are counted exactly and only reduced modulo the prime once multiplied
+        var legOverflow = overflow == Overflow.WRAP ? Overflow.WRAP : Overflow.BIG_INTEGER;
+        var count = BigInteger.ONE;
+        var infinite = false;
+        var from = source;
+        for (var i = 0; i <= stops.length; i++) {
+            var to = i < stops.length ? stops[i] : sink;
+            var view = condensed(to, sink);
+            if (view.infinite()[from]) {
+                infinite = true;
+            } else if (view.subId()[from] < 0) {
+                return BigInteger.ZERO;
+            } else {
+                var paths = view.counter().countPathsThrough(view.subId()[from], view.subSink(), new int[0], true, legOverflow);
+                var big = paths instanceof BigInteger b ? b : BigInteger.valueOf(paths.longValue());
+                if (big.signum() == 0) {
+                    return BigInteger.ZERO;
+                }
+                count = count.multiply(big);
+            }
+            from = to;
+        }
+        return infinite ? null : count;
+    }
+
+    private static List<int[]> permutations(int[] values) {
+        var result = new ArrayList<int[]>();
+        permute(values.clone(), 0, result);
+        return result;
+    }
+
+    private static void permute(int[] values, int from, List<int[]> result) {
+        if (from == values.length) {
+            result.add(values.clone());
+            return;
+        }
+        for (var i = from; i < values.length; i++) {
+            swap(values, from, i);
+            permute(values, from + 1, result);
+            swap(values, from, i);
+        }
+    }
+
+    private static void swap(int[] values, int i, int j) {
+        var t = values[i];
+        values[i] = values[j];
+        values[j] = t;
+    }
+
+    private static long toLong(Number count) {
+        return count instanceof Double ? INFINITE_COUNT : count.longValue();
+    }
+
+    // Counts by name, a name missing from the graph has no paths
+    public long countPathsThrough(String source, String sink, List<String> waypoints, boolean ordered) {
+        return toLong(countPathsThrough(source, sink, waypoints, ordered, Overflow.WRAP));
+    }
+
+    public Number countPathsThrough(String source, String sink, List<String> waypoints, boolean ordered, Overflow overflow) {
+        var sourceId = graph.id(source);
+        var sinkId = graph.id(sink);
+        if (sourceId < 0 || sinkId < 0) {
+            return 0L;
+        }
+        var waypointIds = new int[waypoints.size()];
+        for (var i = 0; i < waypointIds.length; i++) {
+            waypointIds[i] = graph.id(waypoints.get(i));
+            if (waypointIds[i] < 0) {
+                return 0L;
+            }
+        }
+        return countPathsThrough(sourceId, sinkId, waypointIds, ordered, overflow);
+    }
+}
@@ -0,0 +1,180 @@
+package com.adventofcode.utilities;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Stores points as a structure of arrays, one primitive long[] per dimension (xs, ys, zs, ...) indexed by the int id
+ * of the point. Hot loops should work on the ids and the primitive getters, node(id) gives a lightweight Node view
+ * for code that wants an object.
+ */
+public class PointStore {
+    // Above this many points nearestPairs uses a k-d tree rather than checking every pair
+    static final int BRUTE_FORCE_PAIRS_LIMIT = 1024;
+
+    private final int dimensions;
+    private long[][] columns;
+    private int size;
+
+    public PointStore(int dimensions) {
+        this(dimensions, 16);
+    }
+
+    public PointStore(int dimensions, int capacity) {
+        this.dimensions = dimensions;
+        this.columns = new long[dimensions][Math.max(capacity, 1)];
+    }
+
+    // Single point store, used to wrap coordinates that are not part of a larger data set
+    public static PointStore of(List<Long> coordinates) {
+        var store = new PointStore(coordinates.size(), 1);
+        var point = new long[coordinates.size()];
+        for (var i = 0; i < point.length; i++) {
+            point[i] = coordinates.get(i);
+        }
+        store.add(point);
+        return store;
+    }
+
+    // Reads one comma separated point per line straight into the columns, without a String or boxed Long per value.
+    // Blank lines are skipped, a line with more or fewer values than the dimensions is an error
+    public static PointStore parse(InputCursor cursor, int dimensions) {
+        var store = new PointStore(dimensions, 1024);
+        while (cursor.hasRemaining()) {
+            if (cursor.atEndOfLine()) {
+                cursor.nextLine();
+                continue;
+            }
+            store.ensureCapacity();
+            for (var dimension = 0; dimension < dimensions; dimension++) {
+                if (dimension > 0) {
+                    cursor.skipSpaces();
+                    cursor.expect(',');
+                }
+                store.columns[dimension][store.size] = cursor.nextLong();
+            }
+            cursor.skipSpaces();
+            if (!cursor.atEndOfLine()) {
+                throw new IllegalStateException("Expected " + dimensions + " values on the line ending at byte " + cursor.lineEnd());
+            }
+            store.size++;
+            cursor.nextLine();
+        }
+        return store;
+    }
+
+    private void ensureCapacity() {
+        if (size == columns[0].length) {
+            for (var dimension = 0; dimension < dimensions; dimension++) {
+                columns[dimension] = Arrays.copyOf(columns[dimension], size * 2);
+            }
+        }
+    }
+
+    public int add(long x, long y) {
+        assert dimensions == 2;
+        ensureCapacity();
+        columns[0][size] = x;
+        columns[1][size] = y;
+        return size++;
+    }
+
+    public int add(long x, long y, long z) {
+        assert dimensions == 3;
+        ensureCapacity();
+        columns[0][size] = x;
+        columns[1][size] = y;
+        columns[2][size] = z;
+        return size++;
+    }
+
+    public int add(long[] point) {
+        assert point.length == dimensions;
+        ensureCapacity();
+        for (var dimension = 0; dimension < dimensions; dimension++) {
+            columns[dimension][size] = point[dimension];
+        }
+        return size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    public long get(int id, int dimension) {
+        return columns[dimension][id];
+    }
+
+    public long getX(int id) {
+        return columns[0][id];
+    }
+
+    public long getY(int id) {
+        return columns[1][id];
+    }
+
+    public long getZ(int id) {
+        return columns[2][id];
+    }
+
+    // The backing array of one dimension, it can be longer than size() and is replaced when the store grows
+    public long[] column(int dimension) {
+        return columns[dimension];
+    }
+
+    // Smallest and largest value of one dimension over all the points, the store must not be empty
+    public long min(int dimension) {
+        var result = Long.MAX_VALUE;
+        for (var id = 0; id < size; id++) {
+            result = Math.min(result, columns[dimension][id]);
+        }
+        return result;
+    }
+
+    public long max(int dimension) {
+        var result = Long.MIN_VALUE;
+        for (var id = 0; id < size; id++) {
+            result = Math.max(result, columns[dimension][id]);
+        }
+        return result;
+    }
+
+    // Squared euclidean distance, exact in long arithmetic and keeps the same ordering as the real distance
+    public long squaredDistance(int a, int b) {
+        var result = 0L;
+        for (var dimension = 0; dimension < dimensions; dimension++) {
+            var delta = columns[dimension][a] - columns[dimension][b];
+            result += delta * delta;
+        }
+        return result;
+    }
+
+    /**
+     * The k closest pairs of points, closest first.
+     * Small sets check every pair i < j against a bounded heap, O(n^2 log k) without allocating per pair.
+     * Larger sets stream the pairs out of a k-d tree in distance order so only about k pairs are ever looked at.
+     */
+    public ClosestPairs nearestPairs(int k) {
+        if (size > BRUTE_FORCE_PAIRS_LIMIT) {
+            return new KdTree(this).nearestPairs(k);
+        }
+        var selection = new ClosestPairs(k);
+        for (var a = 0; a < size; a++) {
+            for (var b = a + 1; b < size; b++) {
+                var distance = squaredDistance(a, b);
+                if (!selection.isFull() || distance <= selection.worstDistance()) {
+                    selection.offer(distance, a, b);
+                }
+            }
+        }
+        return selection.sort();
+    }
+
+    public Node node(int id) {
+        return new Node(this, id);
+    }
+}
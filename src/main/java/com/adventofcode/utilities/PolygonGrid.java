@@ -0,0 +1,158 @@
+package com.adventofcode.utilities;
+
+import java.util.Arrays;
+
+/**
+ * Inside/outside map of a closed orthogonal polygon of tiles, answering "is this rectangle made only of tiles on or
+ * inside the polygon" in O(1).
+ *
+ * The coordinates are compressed: every distinct x becomes one column and the gap between two neighbouring x values
+ * becomes one more column standing in for all the tiles in it, the same for y. The boundary is drawn on that grid,
+ * the outside is flood filled from a one cell border around it and a 2D prefix sum counts the outside cells in any
+ * rectangle. The grid is O(n^2) in the number of vertices no matter how large the coordinates are.
+ *
+ * The vertices must be given in path order, each consecutive pair (and the last with the first) on one row or column.
+ */
+public class PolygonGrid {
+    private static final byte UNKNOWN = 0;
+    private static final byte BOUNDARY = 1;
+    private static final byte OUTSIDE = 2;
+
+    private final long[] xs;
+    private final long[] ys;
+    private final int width;
+    private final int height;
+    private final int[] outsideSums;
+    private final int[] vertexColumns;
+    private final int[] vertexRows;
+
+    public PolygonGrid(PointStore points) {
+        xs = distinctSorted(points.column(0), points.size());
+        ys = distinctSorted(points.column(1), points.size());
+        // Column 0 and the last column are the border, x value i sits in column 2i + 1 and its gap in 2i + 2
+        width = 2 * xs.length + 1;
+        height = 2 * ys.length + 1;
+
+        vertexColumns = new int[points.size()];
+        vertexRows = new int[points.size()];
+        for (var i = 0; i < points.size(); i++) {
+            vertexColumns[i] = column(points.getX(i));
+            vertexRows[i] = row(points.getY(i));
+        }
+
+        var cells = new byte[width * height];
+        drawBoundary(points, cells);
+        floodOutside(cells);
+        outsideSums = prefixSums(cells);
+    }
+
+    private static long[] distinctSorted(long[] column, int size) {
+        var values = Arrays.copyOf(column, size);
+        Arrays.sort(values);
+        var count = 0;
+        for (var i = 0; i < values.length; i++) {
+            if (count == 0 || values[count - 1] != values[i]) {
+                values[count++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, count);
+    }
+
+    private static int compressed(long[] values, long value) {
+        var index = Arrays.binarySearch(values, value);
+        if (index < 0) {
+            throw new IllegalArgumentException("Coordinate " + value + " is not a vertex coordinate");
+        }
+        return 2 * index + 1;
+    }
+
+    private int column(long x) {
+        return compressed(xs, x);
+    }
+
+    private int row(long y) {
+        return compressed(ys, y);
+    }
+
+    private void drawBoundary(PointStore points, byte[] cells) {
+        for (var i = 0; i < points.size(); i++) {
+            var next = (i + 1) % points.size();
+            var column1 = vertexColumns[i];
+            var column2 = vertexColumns[next];
+            var row1 = vertexRows[i];
+            var row2 = vertexRows[next];
+            if (column1 != column2 && row1 != row2) {
+                throw new IllegalArgumentException("Vertices " + i + " and " + next + " are not on the same row or column");
+            }
+            for (var row = Math.min(row1, row2); row <= Math.max(row1, row2); row++) {
+                for (var column = Math.min(column1, column2); column <= Math.max(column1, column2); column++) {
+                    cells[row * width + column] = BOUNDARY;
+                }
+            }
+        }
+    }
+
+    // Breadth first from the top left border cell, which is always outside
+    private void floodOutside(byte[] cells) {
+        var queue = new int[cells.length];
+        var head = 0;
+        var tail = 0;
+        cells[0] = OUTSIDE;
+        queue[tail++] = 0;
+        while (head < tail) {
+            var cell = queue[head++];
+            var row = cell / width;
+            var column = cell % width;
+            if (column > 0 && cells[cell - 1] == UNKNOWN) { cells[cell - 1] = OUTSIDE; queue[tail++] = cell - 1; }
+            if (column < width - 1 && cells[cell + 1] == UNKNOWN) { cells[cell + 1] = OUTSIDE; queue[tail++] = cell + 1; }
+            if (row > 0 && cells[cell - width] == UNKNOWN) { cells[cell - width] = OUTSIDE; queue[tail++] = cell - width; }
+            if (row < height - 1 && cells[cell + width] == UNKNOWN) { cells[cell + width] = OUTSIDE; queue[tail++] = cell + width; }
+        }
+    }
+
+    // A gap between two neighbouring coordinates such as 5 and 6 holds no tiles, it is still needed for the flood
+    // fill to walk around the shape but must not count as an outside tile
+    private boolean hasTiles(int index, long[] values) {
+        if (index % 2 == 1) {
+            return true;
+        }
+        var gap = index / 2 - 1;
+        return gap >= 0 && gap + 1 < values.length && values[gap + 1] - values[gap] > 1;
+    }
+
+    private int[] prefixSums(byte[] cells) {
+        var stride = width + 1;
+        var sums = new int[stride * (height + 1)];
+        for (var row = 0; row < height; row++) {
+            var rowHasTiles = hasTiles(row, ys);
+            for (var column = 0; column < width; column++) {
+                var outside = rowHasTiles && cells[row * width + column] == OUTSIDE && hasTiles(column, xs) ? 1 : 0;
+                sums[(row + 1) * stride + column + 1] = outside
+                        + sums[row * stride + column + 1]
+                        + sums[(row + 1) * stride + column]
+                        - sums[row * stride + column];
+            }
+        }
+        return sums;
+    }
+
+    private int outsideCount(int minColumn, int minRow, int maxColumn, int maxRow) {
+        var stride = width + 1;
+        return outsideSums[(maxRow + 1) * stride + maxColumn + 1]
+                - outsideSums[minRow * stride + maxColumn + 1]
+                - outsideSums[(maxRow + 1) * stride + minColumn]
+                + outsideSums[minRow * stride + minColumn];
+    }
+
+    // Whether the rectangle with two of the polygon's vertices as opposite corners lies fully inside, O(1)
+    public boolean containsRectangle(int vertexA, int vertexB) {
+        return outsideCount(
+                Math.min(vertexColumns[vertexA], vertexColumns[vertexB]), Math.min(vertexRows[vertexA], vertexRows[vertexB]),
+                Math.max(vertexColumns[vertexA], vertexColumns[vertexB]), Math.max(vertexRows[vertexA], vertexRows[vertexB])) == 0;
+    }
+
+    // The same check for any rectangle whose sides lie on vertex coordinates, O(log n) to look up the coordinates
+    public boolean containsRectangle(long minX, long minY, long maxX, long maxY) {
+        return outsideCount(column(minX), row(minY), column(maxX), row(maxY)) == 0;
+    }
+}
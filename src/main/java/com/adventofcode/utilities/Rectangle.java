@@ -1,7 +1,6 @@
 package com.adventofcode.utilities;
 
 import java.util.ArrayList;
-import java.util.List;
 
 public class Rectangle {
     Node A;
@@ -13,7 +12,7 @@ public class Rectangle {
     public Rectangle(Node A, Node B) {
         this.A = A;
         this.B = B;
-        this.area = (long)(Math.abs(A.getCoordinates().get(0) - B.getCoordinates().get(0)) + 1) * (long)(Math.abs(A.getCoordinates().get(1) - B.getCoordinates().get(1)) + 1);
+        this.area = (Math.abs(A.getX() - B.getX()) + 1) * (Math.abs(A.getY() - B.getY()) + 1);
     }
 
     public Rectangle(Node A, Node B, double area) {
@@ -22,6 +21,11 @@ public class Rectangle {
         this.area = area;
     }
 
+    // Area of the rectangle spanned by two points of the store, counting the tiles on the border
+    public static long getArea(PointStore points, int A, int B) {
+        return (Math.abs(points.getX(A) - points.getX(B)) + 1) * (Math.abs(points.getY(A) - points.getY(B)) + 1);
+    }
+
     public double getArea() {
         return area;
     }
@@ -34,15 +38,28 @@ public class Rectangle {
         return B;
     }
 
+    // Rectangles are equal when they have the same pair of corners in either order
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Rectangle rectangle)) return false;
+        return (sameCorner(A, rectangle.A) && sameCorner(B, rectangle.B))
+                || (sameCorner(A, rectangle.B) && sameCorner(B, rectangle.A));
+    }
+
+    private static boolean sameCorner(Node a, Node b) {
+        return a.getX() == b.getX() && a.getY() == b.getY();
+    }
+
     @Override
     public int hashCode() {
-        return (int)(A.getCoordinates().get(0) * B.getCoordinates().get(0) +
-                A.getCoordinates().get(1) * B.getCoordinates().get(1));
+        return Long.hashCode(CoordinatesHashing.hashUnordered((int)A.getX(), (int)A.getY(), (int)B.getX(), (int)B.getY()));
     }
+
     public boolean withinDimension(int dimension, Node node) {
-        var min = Math.min(this.A.getCoordinates().get(dimension), this.B.getCoordinates().get(dimension));
-        var max = Math.max(this.A.getCoordinates().get(dimension), this.B.getCoordinates().get(dimension));
-        var pos = node.getCoordinates().get(dimension);
+        var min = Math.min(this.A.getCoordinate(dimension), this.B.getCoordinate(dimension));
+        var max = Math.max(this.A.getCoordinate(dimension), this.B.getCoordinate(dimension));
+        var pos = node.getCoordinate(dimension);
         return min <= pos && max >= pos;
     }
 
@@ -51,36 +68,38 @@ public class Rectangle {
     }
 
     public ArrayList<Node> getSquares() {
-        var minX = Math.min(this.A.getCoordinates().get(0), this.B.getCoordinates().get(0));
-        var maxX = Math.max(this.A.getCoordinates().get(0), this.B.getCoordinates().get(0));
-        var minY = Math.min(this.A.getCoordinates().get(1), this.B.getCoordinates().get(1));
-        var maxY = Math.max(this.A.getCoordinates().get(1), this.B.getCoordinates().get(1));
+        var minX = Math.min(this.A.getX(), this.B.getX());
+        var maxX = Math.max(this.A.getX(), this.B.getX());
+        var minY = Math.min(this.A.getY(), this.B.getY());
+        var maxY = Math.max(this.A.getY(), this.B.getY());
 
+        var squares = new PointStore(2);
         var arr = new ArrayList<Node>();
         for (var i = minX; i <= maxX; i++) {
             for (var j = minY; j <= maxY; j++) {
-                arr.add(new Node(List.of(i, j)));
+                arr.add(squares.node(squares.add(i, j)));
             }
         }
         return arr;
     }
 
     public ArrayList<Node> getAllCorners() {
-        var minX = Math.min(this.A.getCoordinates().get(0), this.B.getCoordinates().get(0));
-        var maxX = Math.max(this.A.getCoordinates().get(0), this.B.getCoordinates().get(0));
-        var minY = Math.min(this.A.getCoordinates().get(1), this.B.getCoordinates().get(1));
-        var maxY = Math.max(this.A.getCoordinates().get(1), this.B.getCoordinates().get(1));
+        var minX = Math.min(this.A.getX(), this.B.getX());
+        var maxX = Math.max(this.A.getX(), this.B.getX());
+        var minY = Math.min(this.A.getY(), this.B.getY());
+        var maxY = Math.max(this.A.getY(), this.B.getY());
 
+        var corners = new PointStore(2, 4);
         var arr = new ArrayList<Node>();
-        arr.add(new Node(List.of(minX, minY)));
-        arr.add(new Node(List.of(minX, maxY)));
-        arr.add(new Node(List.of(maxX, minY)));
-        arr.add(new Node(List.of(maxX, maxY)));
+        arr.add(corners.node(corners.add(minX, minY)));
+        arr.add(corners.node(corners.add(minX, maxY)));
+        arr.add(corners.node(corners.add(maxX, minY)));
+        arr.add(corners.node(corners.add(maxX, maxY)));
         return arr;
     }
 
     public boolean equalsDimension(int dimension, Node node) {
-        var pos = node.getCoordinates().get(dimension);
-        return this.A.getCoordinates().get(dimension) == pos || this.B.getCoordinates().get(dimension) == pos;
+        var pos = node.getCoordinate(dimension);
+        return this.A.getCoordinate(dimension) == pos || this.B.getCoordinate(dimension) == pos;
     }
-}
\ No newline at end of file
+}
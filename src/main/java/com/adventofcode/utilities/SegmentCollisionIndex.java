@@ -0,0 +1,145 @@
+package com.adventofcode.utilities;
+
+import java.util.Arrays;
+
+/**
+ * A fixed set of grid points that answers "does any point lie on this row or column segment" with two binary
+ * searches, O(log n) per query.
+ *
+ * The points are kept twice, once grouped by column and sorted by y and once grouped by row and sorted by x. Each
+ * grouping is three primitive arrays: the sorted distinct line keys, where each line starts in the values and the
+ * values of all lines one after another.
+ *
+ * Built once through a Builder, the index is read only afterwards and safe to query from several threads.
+ */
+public class SegmentCollisionIndex {
+    private final Lines columns;
+    private final Lines rows;
+
+    private SegmentCollisionIndex(Lines columns, Lines rows) {
+        this.columns = columns;
+        this.rows = rows;
+    }
+
+    // Any point with this x and a y in [minY, maxY]
+    public boolean collidesWithColumn(long x, long minY, long maxY) {
+        return columns.collides(x, minY, maxY);
+    }
+
+    // Any point with this y and an x in [minX, maxX]
+    public boolean collidesWithRow(long y, long minX, long maxX) {
+        return rows.collides(y, minX, maxX);
+    }
+
+    // Any point on the four sides of the rectangle, the inside is not checked
+    public boolean collidesWithRectangleSides(long minX, long minY, long maxX, long maxY) {
+        return collidesWithColumn(minX, minY, maxY) ||
+                collidesWithColumn(maxX, minY, maxY) ||
+                collidesWithRow(minY, minX, maxX) ||
+                collidesWithRow(maxY, minX, maxX);
+    }
+
+    public int size() {
+        return columns.values.length;
+    }
+
+    private static class Lines {
+        final long[] keys;
+        final int[] starts;
+        final long[] values;
+
+        // Buckets the values by their key: the distinct keys are found by sorting a copy of the keys, each value is
+        // placed in its key's range and every range is then sorted on its own
+        Lines(long[] pointKeys, long[] pointValues, int count) {
+            var sortedKeys = Arrays.copyOf(pointKeys, count);
+            Arrays.sort(sortedKeys);
+            var distinct = 0;
+            for (var i = 0; i < count; i++) {
+                if (i == 0 || sortedKeys[i] != sortedKeys[i - 1]) {
+                    sortedKeys[distinct++] = sortedKeys[i];
+                }
+            }
+            keys = Arrays.copyOf(sortedKeys, distinct);
+
+            starts = new int[distinct + 1];
+            for (var i = 0; i < count; i++) {
+                starts[Arrays.binarySearch(keys, pointKeys[i]) + 1]++;
+            }
+            for (var line = 0; line < distinct; line++) {
+                starts[line + 1] += starts[line];
+            }
+
+            values = new long[count];
+            var next = Arrays.copyOf(starts, distinct);
+            for (var i = 0; i < count; i++) {
+                values[next[Arrays.binarySearch(keys, pointKeys[i])]++] = pointValues[i];
+            }
+            for (var line = 0; line < distinct; line++) {
+                Arrays.sort(values, starts[line], starts[line + 1]);
+            }
+        }
+
+        boolean collides(long key, long min, long max) {
+            var line = Arrays.binarySearch(keys, key);
+            if (line < 0) {
+                return false;
+            }
+            // The first value on the line that is >= min, it collides when it is also <= max
+            var from = starts[line];
+            var to = starts[line + 1];
+            while (from < to) {
+                var middle = (from + to) >>> 1;
+                if (values[middle] < min) {
+                    from = middle + 1;
+                } else {
+                    to = middle;
+                }
+            }
+            return from < starts[line + 1] && values[from] <= max;
+        }
+    }
+
+    /**
+     * Collects the points to index. Removing a point takes it out of the index no matter when it was added, so a
+     * point cannot be added back once removed. Removed points are remembered as packed keys, their coordinates must
+     * fit in an int.
+     */
+    public static class Builder {
+        private long[] xs = new long[16];
+        private long[] ys = new long[16];
+        private int size;
+        private final LongHashSet removed = new LongHashSet();
+
+        public Builder add(long x, long y) {
+            if (size == xs.length) {
+                xs = Arrays.copyOf(xs, size * 2);
+                ys = Arrays.copyOf(ys, size * 2);
+            }
+            xs[size] = x;
+            ys[size] = y;
+            size++;
+            return this;
+        }
+
+        public Builder remove(long x, long y) {
+            removed.add(pack(x, y));
+            return this;
+        }
+
+        private static long pack(long x, long y) {
+            return (x << 32) | (y & 0xffffffffL);
+        }
+
+        public SegmentCollisionIndex build() {
+            var count = 0;
+            for (var i = 0; i < size; i++) {
+                if (!removed.contains(pack(xs[i], ys[i]))) {
+                    xs[count] = xs[i];
+                    ys[count] = ys[i];
+                    count++;
+                }
+            }
+            return new SegmentCollisionIndex(new Lines(xs, ys, count), new Lines(ys, xs, count));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.adventofcode.utilities;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers answers keyed by a canonical long[] encoding of the problem, so an exact repeat is answered without
+ * solving it again. The least recently used entry is dropped once the cache holds capacity entries, a capacity of
+ * 0 turns the cache off. Lookups count hits and misses.
+ *
+ * The key array is compared by content and must not be changed after it is used. All methods are synchronized so
+ * one cache can be shared by the threads solving in parallel, two threads missing on the same key both solve it.
+ */
+public class SolutionCache {
+    public static final long MISSING = Long.MIN_VALUE;
+
+    private record Key(long[] values) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Arrays.equals(values, key.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+    }
+
+    private final int capacity;
+    private final LinkedHashMap<Key, Long> entries;
+    private long hits;
+    private long misses;
+
+    public SolutionCache(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Cache capacity must not be negative, got " + capacity);
+        }
+        this.capacity = capacity;
+        // Access order so iteration starts from the least recently used entry
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Long> eldest) {
+                return size() > SolutionCache.this.capacity;
+            }
+        };
+    }
+
+    // The cached answer or MISSING
+    public synchronized long get(long[] key) {
+        if (capacity == 0) {
+            misses++;
+            return MISSING;
+        }
+        var value = entries.get(new Key(key));
+        if (value == null) {
+            misses++;
+            return MISSING;
+        }
+        hits++;
+        return value;
+    }
+
+    public synchronized void put(long[] key, long value) {
+        if (capacity > 0) {
+            entries.put(new Key(key), value);
+        }
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // Drops the entries and resets the counters
+    public synchronized void clear() {
+        entries.clear();
+        hits = 0;
+        misses = 0;
+    }
+}
@@ -0,0 +1,153 @@
+package com.adventofcode.utilities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The strongly connected components of a CompiledGraph, found with Tarjan's algorithm run iteratively on explicit
+ * int stacks so deep graphs cannot overflow the call stack. Linear in nodes plus edges.
+ *
+ * Components are numbered in the order Tarjan completes them, which is a reverse topological order of the condensed
+ * graph: every edge between two components goes from a higher number to a lower one. A component is cyclic when it
+ * has more than one node or a node with an edge to itself.
+ *
+ * The edges leaving some nodes can be left out (cutNodes), path counts end at their sink so a cycle that only exists
+ * through the sink's own edges is not a cycle for them.
+ */
+public class StronglyConnectedComponents {
+    private final int[] component;
+    private final int[] sizes;
+    private final boolean[] cyclic;
+    private final int count;
+
+    private StronglyConnectedComponents(int[] component, int[] sizes, boolean[] cyclic, int count) {
+        this.component = component;
+        this.sizes = sizes;
+        this.cyclic = cyclic;
+        this.count = count;
+    }
+
+    public static StronglyConnectedComponents of(CompiledGraph graph, int... cutNodes) {
+        var n = graph.nodeCount();
+        var cut = new boolean[n];
+        for (var node : cutNodes) {
+            cut[node] = true;
+        }
+        var index = new int[n];
+        var low = new int[n];
+        var onStack = new boolean[n];
+        var stack = new int[n];
+        var callNode = new int[n];
+        var callEdge = new int[n];
+        var component = new int[n];
+        var sizes = new int[n];
+        var cyclic = new boolean[n];
+        Arrays.fill(index, -1);
+
+        var counter = 0;
+        var count = 0;
+        var sp = 0;
+        for (var start = 0; start < n; start++) {
+            if (index[start] != -1) {
+                continue;
+            }
+            var csp = 0;
+            index[start] = low[start] = counter++;
+            stack[sp++] = start;
+            onStack[start] = true;
+            callNode[csp] = start;
+            callEdge[csp++] = 0;
+
+            while (csp > 0) {
+                var node = callNode[csp - 1];
+                var degree = cut[node] ? 0 : graph.outDegree(node);
+                if (callEdge[csp - 1] < degree) {
+                    var next = graph.target(node, callEdge[csp - 1]++);
+                    if (index[next] == -1) {
+                        index[next] = low[next] = counter++;
+                        stack[sp++] = next;
+                        onStack[next] = true;
+                        callNode[csp] = next;
+                        callEdge[csp++] = 0;
+                    } else if (onStack[next]) {
+                        low[node] = Math.min(low[node], index[next]);
+                    }
+                    continue;
+                }
+
+                // Every edge of the node is done, it roots a component when nothing below it reached further up
+                if (low[node] == index[node]) {
+                    int member;
+                    do {
+                        member = stack[--sp];
+                        onStack[member] = false;
+                        component[member] = count;
+                        sizes[count]++;
+                    } while (member != node);
+                    cyclic[count] = sizes[count] > 1 || !cut[node] && hasSelfLoop(graph, node);
+                    count++;
+                }
+                csp--;
+                if (csp > 0) {
+                    var parent = callNode[csp - 1];
+                    low[parent] = Math.min(low[parent], low[node]);
+                }
+            }
+        }
+        return new StronglyConnectedComponents(component, Arrays.copyOf(sizes, count), Arrays.copyOf(cyclic, count), count);
+    }
+
+    private static boolean hasSelfLoop(CompiledGraph graph, int node) {
+        for (var i = 0; i < graph.outDegree(node); i++) {
+            if (graph.target(node, i) == node) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int component(int node) {
+        return component[node];
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int size(int component) {
+        return sizes[component];
+    }
+
+    public boolean isCyclic(int component) {
+        return cyclic[component];
+    }
+
+    public boolean hasCycles() {
+        for (var c = 0; c < count; c++) {
+            if (cyclic[c]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The node names of every cyclic component
+    public List<List<String>> cycles(CompiledGraph graph) {
+        var members = new ArrayList<List<String>>();
+        var slot = new int[count];
+        Arrays.fill(slot, -1);
+        for (var node = 0; node < component.length; node++) {
+            var c = component[node];
+            if (!cyclic[c]) {
+                continue;
+            }
+            if (slot[c] == -1) {
+                slot[c] = members.size();
+                members.add(new ArrayList<>());
+            }
+            members.get(slot[c]).add(graph.name(node));
+        }
+        return members;
+    }
+}
@@ -0,0 +1,119 @@
+package com.adventofcode.problems;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+// Day 10 end to end on inputs written to a temporary file, the ILP strategy runs the real ojalgo solver
+class JoltageConfigurationProblemTest {
+
+    private static final String EXAMPLE = """
+            [.##.] (3) (1,3) (2) (2,3) (0,2) (0,1) {3,5,4,7}
+            [...#.] (0,2,3,4) (2,3) (0,4) (0,1,2) (1,2,3,4) {7,5,12,7,2}
+            [.###.#] (0,1,2,3,4) (0,3,4) (0,1,2,4,5) (1,2) {10,11,11,5,10,5}
+            """;
+
+    @TempDir
+    Path directory;
+
+    private JoltageConfigurationProblem problem(String input, JoltageConfigurationProblem.Part2Strategy strategy) throws IOException {
+        return problem(input, strategy, 1);
+    }
+
+    private JoltageConfigurationProblem problem(String input, JoltageConfigurationProblem.Part2Strategy strategy, int threads) throws IOException {
+        var file = directory.resolve("input10.txt");
+        Files.writeString(file, input);
+        var problem = new JoltageConfigurationProblem(file.toString(), false);
+        problem.setPart2Strategy(strategy);
+        problem.setPart2Threads(threads);
+        problem.setCacheCapacity(0);
+        return problem;
+    }
+
+    // Machines with 9 counters and 14 buttons, at least 5 free buttons, and targets in the hundreds
+    private static String largeMachines(Random random, int machines) {
+        var input = new StringBuilder();
+        for (var machine = 0; machine < machines; machine++) {
+            var counters = 9;
+            var targets = new int[counters];
+            input.append('[');
+            for (var light = 0; light < counters; light++) {
+                input.append(random.nextBoolean() ? '#' : '.');
+            }
+            input.append(']');
+            for (var button = 0; button < 14; button++) {
+                var mask = 0L;
+                var size = 1 + random.nextInt(5);
+                while (Long.bitCount(mask) < size) {
+                    mask |= 1L << random.nextInt(counters);
+                }
+                var presses = random.nextInt(61);
+                input.append(" (");
+                for (var counter = 0; counter < counters; counter++) {
+                    if ((mask >> counter & 1) != 0) {
+                        targets[counter] += presses;
+                        input.append(Long.bitCount(mask & ((1L << counter) - 1)) == 0 ? "" : ",").append(counter);
+                    }
+                }
+                input.append(')');
+            }
+            input.append(" {");
+            for (var counter = 0; counter < counters; counter++) {
+                input.append(counter == 0 ? "" : ",").append(targets[counter]);
+            }
+            input.append("}\n");
+        }
+        return input.toString();
+    }
+
+    @Test
+    void example() throws IOException {
+        assertEquals(7, problem(EXAMPLE, JoltageConfigurationProblem.Part2Strategy.ILP).solvePart1());
+        assertEquals(33L, problem(EXAMPLE, JoltageConfigurationProblem.Part2Strategy.ILP).solvePart2());
+        assertEquals(33L, problem(EXAMPLE, JoltageConfigurationProblem.Part2Strategy.INTEGER_SEARCH).solvePart2());
+    }
+
+    // The search gives up on these and has to hand them to the ILP within the time an ILP solve takes
+    @Test
+    void integerSearchFallsBackToTheIlp() throws IOException {
+        var input = largeMachines(new Random(1018), 30);
+        var expected = problem(input, JoltageConfigurationProblem.Part2Strategy.ILP).solvePart2();
+        var search = problem(input, JoltageConfigurationProblem.Part2Strategy.INTEGER_SEARCH);
+        assertEquals(expected, assertTimeoutPreemptively(Duration.ofSeconds(30), search::solvePart2));
+    }
+
+    // The machines spread over a pool, solved twice so the second run goes through the builders the pool's threads
+    // kept from the first
+    @Test
+    void parallelIlpMatchesSequential() throws IOException {
+        var example = problem(EXAMPLE, JoltageConfigurationProblem.Part2Strategy.ILP, 4);
+        assertEquals(33L, example.solvePart2());
+        assertEquals(33L, example.solvePart2());
+
+        var input = largeMachines(new Random(1017), 40);
+        var expected = problem(input, JoltageConfigurationProblem.Part2Strategy.ILP).solvePart2();
+        var parallel = problem(input, JoltageConfigurationProblem.Part2Strategy.ILP, 4);
+        assertEquals(expected, parallel.solvePart2());
+        assertEquals(expected, parallel.solvePart2());
+        var commonPool = new JoltageConfigurationProblem(directory.resolve("input10.txt").toString(), false);
+        commonPool.setCacheCapacity(0);
+        commonPool.setPart2Strategy(JoltageConfigurationProblem.Part2Strategy.ILP);
+        assertEquals(expected, commonPool.solvePart2());
+    }
+
+    // Light 4 of a machine with 4 lights would be a state past the end of the BFS arrays
+    @Test
+    void buttonPastTheLastLightIsRejected() throws IOException {
+        var problem = problem("[.##.] (3) (1,4) (2) {3,5,4,7}\n", JoltageConfigurationProblem.Part2Strategy.ILP);
+        assertThrows(IllegalArgumentException.class, problem::getParsedInput);
+    }
+}
@@ -0,0 +1,90 @@
+package com.adventofcode.problems;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Day 9 part 2 with the PERIMETER check against PREFIX_SUM, which PolygonGridTest checks against a drawn polygon
+class LargestRectangleTest {
+
+    @TempDir
+    Path directory;
+
+    // Histogram shapes, a flat bottom and a stepped top, mirrored and transposed, with the path starting at a random
+    // vertex so every kind of corner is also the first one
+    private static ArrayList<long[]> polygon(Random random, int size) {
+        var columns = 1 + random.nextInt(6);
+        var xs = new long[columns + 1];
+        for (var i = 1; i <= columns; i++) {
+            xs[i] = xs[i - 1] + 2 + random.nextInt(4);
+        }
+        var heights = new long[columns];
+        for (var i = 0; i < columns; i++) {
+            do {
+                heights[i] = 2 + random.nextInt(8);
+            } while (i > 0 && Math.abs(heights[i] - heights[i - 1]) < 2);
+        }
+        var vertices = new ArrayList<long[]>();
+        vertices.add(new long[] {0, 0});
+        vertices.add(new long[] {xs[columns], 0});
+        for (var i = columns - 1; i >= 0; i--) {
+            vertices.add(new long[] {xs[i + 1], heights[i]});
+            vertices.add(new long[] {xs[i], heights[i]});
+        }
+        var flipX = random.nextBoolean();
+        var flipY = random.nextBoolean();
+        var transpose = random.nextBoolean();
+        for (var vertex : vertices) {
+            var x = 2 + (flipX ? size - vertex[0] : vertex[0]);
+            var y = 2 + (flipY ? size - vertex[1] : vertex[1]);
+            vertex[0] = transpose ? y : x;
+            vertex[1] = transpose ? x : y;
+        }
+        Collections.rotate(vertices, random.nextInt(vertices.size()));
+        return vertices;
+    }
+
+    private LargestRectangle problem(ArrayList<long[]> vertices, LargestRectangle.Part2Strategy strategy) throws IOException {
+        var input = new StringBuilder();
+        for (var vertex : vertices) {
+            input.append(vertex[0]).append(',').append(vertex[1]).append('\n');
+        }
+        var file = directory.resolve("input9.txt");
+        Files.writeString(file, input);
+        var problem = new LargestRectangle(file.toString(), false);
+        problem.setPart2Strategy(strategy);
+        return problem;
+    }
+
+    @Test
+    void perimeterMatchesPrefixSum() throws IOException {
+        var random = new Random(913);
+        for (var round = 0; round < 1000; round++) {
+            var vertices = polygon(random, 40);
+            assertEquals(problem(vertices, LargestRectangle.Part2Strategy.PREFIX_SUM).solvePart2(),
+                    problem(vertices, LargestRectangle.Part2Strategy.PERIMETER).solvePart2(), "round " + round);
+        }
+    }
+
+    // The example of day 9, starting at an outside corner and at the inside corner (7,3) of its notch
+    @Test
+    void example() throws IOException {
+        var vertices = new ArrayList<long[]>();
+        for (var vertex : new long[][] {{7, 1}, {11, 1}, {11, 7}, {9, 7}, {9, 5}, {2, 5}, {2, 3}, {7, 3}}) {
+            vertices.add(vertex);
+        }
+        for (var start = 0; start < 2; start++) {
+            assertEquals(24L, problem(vertices, LargestRectangle.Part2Strategy.PERIMETER).solvePart2());
+            assertEquals(24L, problem(vertices, LargestRectangle.Part2Strategy.PREFIX_SUM).solvePart2());
+            Collections.rotate(vertices, 1);
+        }
+    }
+}
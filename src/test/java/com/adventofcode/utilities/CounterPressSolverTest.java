@@ -0,0 +1,171 @@
+package com.adventofcode.utilities;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The solver against trying every number of presses of every button up to the largest target
+class CounterPressSolverTest {
+
+    private static long bruteForce(long[] buttons, int[] targets, int maxPresses) {
+        return search(buttons, targets, new int[targets.length], 0, 0, maxPresses);
+    }
+
+    private static long search(long[] buttons, int[] targets, int[] counters, int button, long presses, int maxPresses) {
+        if (button == buttons.length) {
+            for (var i = 0; i < targets.length; i++) {
+                if (counters[i] != targets[i]) {
+                    return CounterPressSolver.UNREACHABLE;
+                }
+            }
+            return presses;
+        }
+        var best = CounterPressSolver.UNREACHABLE;
+        for (var count = 0; count <= maxPresses; count++) {
+            var result = search(buttons, targets, counters, button + 1, presses + count, maxPresses);
+            if (result != CounterPressSolver.UNREACHABLE && (best == CounterPressSolver.UNREACHABLE || result < best)) {
+                best = result;
+            }
+            var over = false;
+            for (var i = 0; i < targets.length; i++) {
+                if ((buttons[button] >> i & 1) != 0 && ++counters[i] > targets[i]) {
+                    over = true;
+                }
+            }
+            if (over || count == maxPresses) {
+                // Undo the presses of this button before going back up
+                for (var i = 0; i < targets.length; i++) {
+                    if ((buttons[button] >> i & 1) != 0) {
+                        counters[i] -= count + 1;
+                    }
+                }
+                break;
+            }
+        }
+        return best;
+    }
+
+    @Test
+    void matchesBruteForce() {
+        var random = new Random(18);
+        var solver = new CounterPressSolver();
+        var unreachable = 0;
+        for (var round = 0; round < 2000; round++) {
+            var counters = 1 + random.nextInt(5);
+            var buttons = new long[1 + random.nextInt(5)];
+            for (var i = 0; i < buttons.length; i++) {
+                buttons[i] = 1 + random.nextInt((1 << counters) - 1);
+            }
+            var targets = new int[counters];
+            for (var i = 0; i < counters; i++) {
+                targets[i] = random.nextInt(7);
+            }
+            var expected = bruteForce(buttons, targets, 6);
+            if (expected == CounterPressSolver.UNREACHABLE) {
+                unreachable++;
+            }
+            assertEquals(expected, solver.minPresses(buttons, targets));
+        }
+        assertTrue(unreachable > 0, "no unreachable target was generated");
+    }
+
+    // The first example machine of day 10: (3) (1,3) (2) (2,3) (0,2) (0,1) {3,5,4,7}
+    @Test
+    void exampleMachine() {
+        long[] buttons = {0b1000, 0b1010, 0b0100, 0b1100, 0b0101, 0b0011};
+        assertEquals(10, new CounterPressSolver().minPresses(buttons, new int[] {3, 5, 4, 7}));
+    }
+
+    // Random buttons over the counters and the targets they reach with 0..maxPresses presses each, returns the presses
+    private static long reachableMachine(Random random, long[] buttons, int[] targets, int maxPresses) {
+        var counters = targets.length;
+        var total = 0L;
+        for (var i = 0; i < buttons.length; i++) {
+            var size = 1 + random.nextInt(Math.min(5, counters));
+            while (Long.bitCount(buttons[i]) < size) {
+                buttons[i] |= 1L << random.nextInt(counters);
+            }
+            var presses = random.nextInt(maxPresses + 1);
+            for (var counter = 0; counter < counters; counter++) {
+                if ((buttons[i] >> counter & 1) != 0) {
+                    targets[counter] += presses;
+                }
+            }
+            total += presses;
+        }
+        return total;
+    }
+
+    // 11 buttons over 6 counters leave at least 5 free, the pruning has to stay exact with all of them searched
+    @Test
+    void matchesBruteForceWithManyFreeButtons() {
+        var random = new Random(1018);
+        var solver = new CounterPressSolver();
+        solver.setMaxFreeButtons(Integer.MAX_VALUE);
+        solver.setMaxSearchSpace(Long.MAX_VALUE);
+        solver.setMaxNodes(Long.MAX_VALUE);
+        for (var round = 0; round < 100; round++) {
+            var buttons = new long[11];
+            var targets = new int[6];
+            reachableMachine(random, buttons, targets, 2);
+            assertEquals(bruteForce(buttons, targets, 6), solver.minPresses(buttons, targets));
+        }
+    }
+
+    // Targets in the hundreds with 5 or more free buttons are past the search, it has to give up quickly rather than
+    // enumerate, and whatever it does answer must be no worse than the presses the targets were made from
+    @Test
+    void givesUpOnLargeMachinesInTime() {
+        var random = new Random(2018);
+        var solver = new CounterPressSolver();
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (var round = 0; round < 50; round++) {
+                var buttons = new long[14];
+                var targets = new int[9];
+                reachableMachine(random, buttons, targets, 60);
+                assertEquals(CounterPressSolver.TOO_LARGE, solver.minPresses(buttons, targets));
+            }
+        });
+
+        solver.setMaxFreeButtons(Integer.MAX_VALUE);
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (var round = 0; round < 50; round++) {
+                var buttons = new long[14];
+                var targets = new int[9];
+                var presses = reachableMachine(random, buttons, targets, 60);
+                var result = solver.minPresses(buttons, targets);
+                assertTrue(result == CounterPressSolver.TOO_LARGE || result >= 0 && result <= presses,
+                        "got " + result + " for a machine reachable in " + presses);
+            }
+        });
+    }
+
+    // Coefficients that overflow during elimination are given up on, not thrown
+    @Test
+    void overflowGivesUp() {
+        var random = new Random(3018);
+        var solver = new CounterPressSolver();
+        solver.setMaxFreeButtons(Integer.MAX_VALUE);
+        var gaveUp = 0;
+        for (var round = 0; round < 20; round++) {
+            var buttons = new long[64];
+            var targets = new int[64];
+            for (var i = 0; i < buttons.length; i++) {
+                buttons[i] = random.nextLong();
+            }
+            for (var i = 0; i < targets.length; i++) {
+                targets[i] = 1000 + random.nextInt(1000);
+            }
+            var result = solver.minPresses(buttons, targets);
+            if (result == CounterPressSolver.TOO_LARGE) {
+                gaveUp++;
+            }
+        }
+        assertTrue(gaveUp > 0, "no machine overflowed");
+    }
+}
@@ -0,0 +1,55 @@
+package com.adventofcode.utilities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Union-find against relabelling a plain component array on every merge
+class DisjointSetTest {
+
+    @Test
+    void matchesRelabelling() {
+        var random = new Random(7);
+        for (var round = 0; round < 200; round++) {
+            var count = 1 + random.nextInt(60);
+            var set = new DisjointSet(count);
+            var label = new int[count];
+            for (var i = 0; i < count; i++) {
+                label[i] = i;
+            }
+            var components = count;
+            for (var step = 0; step < 2 * count; step++) {
+                var a = random.nextInt(count);
+                var b = random.nextInt(count);
+                var merges = label[a] != label[b];
+                assertEquals(merges, set.union(a, b));
+                if (merges) {
+                    var from = label[b];
+                    for (var i = 0; i < count; i++) {
+                        if (label[i] == from) {
+                            label[i] = label[a];
+                        }
+                    }
+                    components--;
+                    assertEquals(a, set.getLastUnionA());
+                    assertEquals(b, set.getLastUnionB());
+                }
+                var c = random.nextInt(count);
+                assertEquals(label[a] == label[c], set.connected(a, c));
+                assertEquals(components, set.componentCount());
+            }
+
+            var expected = new int[count];
+            for (var l : label) {
+                expected[l]++;
+            }
+            var sizes = set.componentSizes();
+            Arrays.sort(sizes);
+            assertArrayEquals(Arrays.stream(expected).filter(size -> size > 0).sorted().toArray(), sizes);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.adventofcode.utilities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The k-d tree answers checked against listing and sorting every pair, on small coordinate ranges so many pairs
+// share a distance and the tie order matters
+class KdTreeTest {
+
+    private static PointStore randomPoints(Random random, int count, int range) {
+        var points = new PointStore(3, count);
+        for (var i = 0; i < count; i++) {
+            points.add(random.nextInt(range), random.nextInt(range), random.nextInt(range));
+        }
+        return points;
+    }
+
+    // Every pair as {squared distance, lower id, higher id}, in the order pairs are ranked by: distance, then ids
+    private static ArrayList<long[]> sortedPairs(PointStore points) {
+        var pairs = new ArrayList<long[]>();
+        for (var a = 0; a < points.size(); a++) {
+            for (var b = a + 1; b < points.size(); b++) {
+                pairs.add(new long[] {points.squaredDistance(a, b), a, b});
+            }
+        }
+        pairs.sort(Comparator.<long[]>comparingLong(pair -> pair[0])
+                .thenComparingLong(pair -> pair[1])
+                .thenComparingLong(pair -> pair[2]));
+        return pairs;
+    }
+
+    private static ArrayList<long[]> kruskal(PointStore points) {
+        var trees = new DisjointSet(points.size());
+        var tree = new ArrayList<long[]>();
+        for (var pair : sortedPairs(points)) {
+            if (trees.union((int) pair[1], (int) pair[2])) {
+                tree.add(pair);
+            }
+        }
+        return tree;
+    }
+
+    private static void assertSameTree(PointStore points) {
+        var expected = kruskal(points);
+        var actual = new KdTree(points).minimumSpanningTree();
+        assertEquals(expected.size(), actual.size(), "edge count");
+        for (var i = 0; i < expected.size(); i++) {
+            var edge = actual.get(i);
+            var pair = expected.get(i);
+            assertEquals(pair[0], edge.getSquaredDistance(), "distance of edge " + i);
+            assertEquals(pair[1], Math.min(edge.getIndexA(), edge.getIndexB()), "lower id of edge " + i);
+            assertEquals(pair[2], Math.max(edge.getIndexA(), edge.getIndexB()), "higher id of edge " + i);
+        }
+    }
+
+    @Test
+    void minimumSpanningTreeMatchesKruskal() {
+        var random = new Random(8);
+        for (var round = 0; round < 50; round++) {
+            assertSameTree(randomPoints(random, 2 + random.nextInt(200), 2 + random.nextInt(20)));
+        }
+    }
+
+    // Points one apart on a line, added in shuffled order: every edge of the tree has the same length, so which one
+    // comes last is decided by the ids alone
+    @Test
+    void minimumSpanningTreeLastEdgeWithTies() {
+        var random = new Random(1924);
+        for (var round = 0; round < 20; round++) {
+            var count = 2 + random.nextInt(300);
+            var xs = new ArrayList<Integer>();
+            for (var x = 0; x < count; x++) {
+                xs.add(x);
+            }
+            Collections.shuffle(xs, random);
+            var points = new PointStore(3, count);
+            for (var x : xs) {
+                points.add(x, 0, 0);
+            }
+            var pair = kruskal(points).get(count - 2);
+            var tree = new KdTree(points).minimumSpanningTree();
+            var last = tree.get(tree.size() - 1);
+            assertEquals(pair[1], Math.min(last.getIndexA(), last.getIndexB()));
+            assertEquals(pair[2], Math.max(last.getIndexA(), last.getIndexB()));
+        }
+    }
+
+    @Test
+    void nearestPairsMatchSortedPairs() {
+        var random = new Random(10);
+        for (var round = 0; round < 50; round++) {
+            var points = randomPoints(random, 2 + random.nextInt(150), 2 + random.nextInt(30));
+            var expected = sortedPairs(points);
+            var k = 1 + random.nextInt(expected.size());
+            var actual = new KdTree(points).nearestPairs(k);
+            assertEquals(k, actual.size(), "pair count");
+            for (var i = 0; i < k; i++) {
+                var pair = expected.get(i);
+                assertEquals(pair[0], actual.getSquaredDistance(i), "distance of pair " + i);
+                assertEquals(pair[1], Math.min(actual.getA(i), actual.getB(i)), "lower id of pair " + i);
+                assertEquals(pair[2], Math.max(actual.getA(i), actual.getB(i)), "higher id of pair " + i);
+            }
+        }
+    }
+
+    // Above BRUTE_FORCE_PAIRS_LIMIT the store switches from its own pair scan to the k-d tree, both give the same
+    @Test
+    void nearestPairsAgreeAcrossTheBruteForceLimit() {
+        var points = randomPoints(new Random(1000), PointStore.BRUTE_FORCE_PAIRS_LIMIT + 200, 50);
+        var expected = sortedPairs(points);
+        var actual = points.nearestPairs(1000);
+        for (var i = 0; i < 1000; i++) {
+            assertEquals(expected.get(i)[1], Math.min(actual.getA(i), actual.getB(i)), "lower id of pair " + i);
+            assertEquals(expected.get(i)[2], Math.max(actual.getA(i), actual.getB(i)), "higher id of pair " + i);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.adventofcode.utilities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The layered passes against the sequential ones of CompiledGraph, with layers narrow enough to be split so the
+// parallel code runs even on small graphs
+class LayeredPathCountsTest {
+    private static final long PRIME = 1_000_000_007L;
+
+    private static CompiledGraph randomDag(Random random, int nodes, int edges) {
+        var builder = new CompiledGraph.Builder();
+        for (var node = 0; node < nodes; node++) {
+            builder.intern("n" + node);
+        }
+        for (var i = 0; i < edges; i++) {
+            var a = random.nextInt(nodes);
+            var b = random.nextInt(nodes);
+            if (a != b) {
+                builder.addEdge(Math.min(a, b), Math.max(a, b));
+            }
+        }
+        return builder.build();
+    }
+
+    private static long[] exactOrNull(CompiledGraph graph, LayeredPathCounts layers, int source, boolean layered) {
+        try {
+            return layered ? layers.pathsFromExact(source) : graph.pathsFromExact(source);
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    @Test
+    void layeredPassesMatchSequential() {
+        var pool = new ForkJoinPool(4);
+        try {
+            var random = new Random(25);
+            for (var round = 0; round < 500; round++) {
+                var nodes = 2 + random.nextInt(200);
+                var graph = randomDag(random, nodes, random.nextInt(6 * nodes));
+                var layers = new LayeredPathCounts(graph, pool, 1 + random.nextInt(4));
+                var source = random.nextInt(nodes);
+                var sink = random.nextInt(nodes);
+
+                assertArrayEquals(graph.pathsTo(sink), layers.pathsTo(sink));
+                assertArrayEquals(graph.pathsFrom(source), layers.pathsFrom(source));
+                assertArrayEquals(graph.pathsFromBig(source), layers.pathsFromBig(source));
+                assertArrayEquals(graph.pathsFromModulo(source, PRIME), layers.pathsFromModulo(source, PRIME));
+                assertArrayEquals(exactOrNull(graph, layers, source, false), exactOrNull(graph, layers, source, true));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void narrowGraphsStaySequential() {
+        var pool = new ForkJoinPool(4);
+        var single = new ForkJoinPool(1);
+        try {
+            var graph = randomDag(new Random(1), 1000, 4000);
+            assertFalse(new LayeredPathCounts(graph, pool).isParallel());
+            assertTrue(new LayeredPathCounts(graph, pool, 1).isParallel());
+            assertFalse(new LayeredPathCounts(graph, single, 1).isParallel());
+        } finally {
+            pool.shutdown();
+            single.shutdown();
+        }
+    }
+
+    // Counters sharing one set of layers count the same as a counter without them
+    @Test
+    void sharedLayersGiveTheSameCounts() {
+        var pool = new ForkJoinPool(4);
+        try {
+            var random = new Random(7);
+            var graph = randomDag(random, 300, 1500);
+            var layers = new LayeredPathCounts(graph, pool, 2);
+            for (var round = 0; round < 20; round++) {
+                var source = random.nextInt(300);
+                var sink = random.nextInt(300);
+                var waypoints = new int[] {random.nextInt(300)};
+                var layered = new PathCounter(graph, PRIME);
+                layered.setLayers(layers);
+                var sequential = new PathCounter(graph, PRIME);
+                for (var overflow : PathCounter.Overflow.values()) {
+                    assertEquals(sequential.countPathsThrough(source, sink, waypoints, false, overflow),
+                            layered.countPathsThrough(source, sink, waypoints, false, overflow));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.adventofcode.utilities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Every strategy of the solver against trying all subsets of the buttons, including targets no subset reaches
+class LightToggleSolverTest {
+
+    private static int bruteForce(long target, long[] buttons) {
+        var best = LightToggleSolver.UNREACHABLE;
+        for (var subset = 0; subset < 1 << buttons.length; subset++) {
+            var lights = 0L;
+            for (var i = 0; i < buttons.length; i++) {
+                if ((subset >> i & 1) != 0) {
+                    lights ^= buttons[i];
+                }
+            }
+            if (lights == target && (best == LightToggleSolver.UNREACHABLE || Integer.bitCount(subset) < best)) {
+                best = Integer.bitCount(subset);
+            }
+        }
+        return best;
+    }
+
+    @Test
+    void everyStrategyMatchesBruteForce() {
+        var random = new Random(15);
+        var solver = new LightToggleSolver();
+        var unreachable = 0;
+        for (var round = 0; round < 3000; round++) {
+            var lights = 1 + random.nextInt(12);
+            var buttons = new long[random.nextInt(12)];
+            for (var i = 0; i < buttons.length; i++) {
+                // Sparse buttons so some targets cannot be reached
+                buttons[i] = random.nextLong() & random.nextLong() & ((1L << lights) - 1);
+            }
+            var target = random.nextLong() & ((1L << lights) - 1);
+            var expected = bruteForce(target, buttons);
+            if (expected == LightToggleSolver.UNREACHABLE) {
+                unreachable++;
+            }
+
+            assertEquals(expected, solver.minPresses(target, buttons, lights), "minPresses");
+            assertEquals(expected, solver.minPressesBfs(target, buttons, lights), "bfs");
+            assertEquals(expected, solver.minPressesSubsets(target, buttons), "subsets");
+            assertEquals(expected, solver.minPressesGaussian(target, buttons, lights), "gaussian");
+            assertEquals(expected, solver.minPressesMeetInTheMiddle(target, buttons), "meet in the middle");
+        }
+        assertTrue(unreachable > 0, "no unreachable target was generated");
+    }
+
+    // The first example machine of day 10: [.##.] (3) (1,3) (2) (2,3) (0,2) (0,1)
+    @Test
+    void exampleMachine() {
+        long[] buttons = {0b1000, 0b1010, 0b0100, 0b1100, 0b0101, 0b0011};
+        assertEquals(2, new LightToggleSolver().minPresses(0b0110, buttons, 4));
+    }
+}
@@ -0,0 +1,58 @@
+package com.adventofcode.utilities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongHashSetTest {
+
+    // Small key ranges so keys repeat, zero included, against a boxed HashSet
+    @Test
+    void matchesHashSet() {
+        var random = new Random(10);
+        for (var round = 0; round < 200; round++) {
+            var set = new LongHashSet(random.nextInt(50));
+            var expected = new HashSet<Long>();
+            var range = 1 + random.nextInt(1000);
+            for (var i = 0; i < 2000; i++) {
+                var key = (random.nextInt(range) - range / 2) * 0x1_0000_0001L;
+                assertEquals(expected.add(key), set.add(key));
+                var probe = (random.nextInt(range) - range / 2) * 0x1_0000_0001L;
+                assertEquals(expected.contains(probe), set.contains(probe));
+            }
+            assertEquals(expected.size(), set.size());
+            var keys = set.toArray();
+            Arrays.sort(keys);
+            assertArrayEquals(expected.stream().mapToLong(Long::longValue).sorted().toArray(), keys);
+        }
+    }
+
+    @Test
+    void rejectsSizesPastTheLargestTable() {
+        assertThrows(IllegalArgumentException.class, () -> new LongHashSet(-1));
+        assertThrows(IllegalArgumentException.class, () -> new LongHashSet((1 << 29) + 1));
+        assertThrows(IllegalArgumentException.class, () -> new LongHashSet(Integer.MAX_VALUE));
+    }
+
+    // A full set that cannot grow throws and leaves the key out, keys already in it still answer false
+    @Test
+    void fullSetDoesNotTakeTheKey() {
+        var set = new LongHashSet(0, 64);
+        for (var key = 1L; key <= 32; key++) {
+            assertTrue(set.add(key));
+        }
+        assertThrows(IllegalStateException.class, () -> set.add(33));
+        assertFalse(set.contains(33));
+        assertEquals(32, set.size());
+        assertFalse(set.add(7));
+        assertEquals(32, set.toArray().length);
+    }
+}
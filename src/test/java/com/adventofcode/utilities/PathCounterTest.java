@@ -0,0 +1,171 @@
+package com.adventofcode.utilities;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Path counts checked against counting walks step by step. A walk ends the first time it reaches the sink, on a
+// cyclic graph the count is infinite when walks of up to 16 and up to 30 edges do not give the same count
+class PathCounterTest {
+    private static final int SHORT_WALKS = 16;
+    private static final int LONG_WALKS = 30;
+
+    private record Graph(CompiledGraph compiled, List<int[]> edges) {
+    }
+
+    private static Graph randomGraph(Random random, boolean acyclic) {
+        var count = 2 + random.nextInt(6);
+        var builder = new CompiledGraph.Builder();
+        for (var node = 0; node < count; node++) {
+            builder.intern("n" + node);
+        }
+        var edges = new ArrayList<int[]>();
+        for (var i = random.nextInt(2 * count + 1); i > 0; i--) {
+            var from = random.nextInt(count);
+            var to = random.nextInt(count);
+            if (acyclic) {
+                if (from == to) {
+                    continue;
+                }
+                var low = Math.min(from, to);
+                to = Math.max(from, to);
+                from = low;
+            }
+            edges.add(new int[] {from, to});
+            builder.addEdge(from, to);
+        }
+        return new Graph(builder.build(), edges);
+    }
+
+    // Walks from the source of at most length edges that end at the sink having visited every waypoint
+    private static long walks(Graph graph, int source, int sink, int[] waypoints, int length) {
+        var all = (1 << waypoints.length) - 1;
+        var start = visit(0, source, waypoints);
+        if (source == sink) {
+            return start == all ? 1 : 0;
+        }
+        var nodes = graph.compiled().nodeCount();
+        var current = new long[nodes][all + 1];
+        current[source][start] = 1;
+        var done = 0L;
+        for (var step = 0; step < length; step++) {
+            var next = new long[nodes][all + 1];
+            for (var edge : graph.edges()) {
+                for (var mask = 0; mask <= all; mask++) {
+                    var count = current[edge[0]][mask];
+                    if (count == 0) {
+                        continue;
+                    }
+                    var visited = visit(mask, edge[1], waypoints);
+                    if (edge[1] != sink) {
+                        next[edge[1]][visited] += count;
+                    } else if (visited == all) {
+                        done += count;
+                    }
+                }
+            }
+            current = next;
+        }
+        return done;
+    }
+
+    private static int visit(int mask, int node, int[] waypoints) {
+        for (var i = 0; i < waypoints.length; i++) {
+            if (waypoints[i] == node) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    private static int[] randomWaypoints(Random random, int nodes) {
+        return random.ints(random.nextInt(4), 0, nodes).distinct().toArray();
+    }
+
+    @Test
+    void acyclicCountsMatchWalks() {
+        var random = new Random(11);
+        for (var round = 0; round < 2000; round++) {
+            var graph = randomGraph(random, true);
+            var nodes = graph.compiled().nodeCount();
+            assertTrue(graph.compiled().isAcyclic());
+            var source = random.nextInt(nodes);
+            var sink = random.nextInt(nodes);
+            var waypoints = randomWaypoints(random, nodes);
+            var expected = walks(graph, source, sink, waypoints, nodes);
+
+            var counter = new PathCounter(graph.compiled(), 1_000_000_007L);
+            for (var overflow : PathCounter.Overflow.values()) {
+                assertEquals(expected, counter.countPathsThrough(source, sink, waypoints, false, overflow).longValue(),
+                        overflow.name());
+            }
+            if (waypoints.length == 0) {
+                assertEquals(expected, graph.compiled().countPaths(source, sink));
+            }
+        }
+    }
+
+    @Test
+    void cyclicCountsMatchWalks() {
+        var random = new Random(24);
+        var infinite = 0;
+        for (var round = 0; round < 5000; round++) {
+            var graph = randomGraph(random, false);
+            var nodes = graph.compiled().nodeCount();
+            var source = random.nextInt(nodes);
+            var sink = random.nextInt(nodes);
+            var waypoints = randomWaypoints(random, nodes);
+            var shorter = walks(graph, source, sink, waypoints, SHORT_WALKS);
+            var longer = walks(graph, source, sink, waypoints, LONG_WALKS);
+
+            var counter = new PathCounter(graph.compiled());
+            var actual = counter.countPathsThrough(source, sink, waypoints, false, PathCounter.Overflow.BIG_INTEGER);
+            if (shorter != longer) {
+                infinite++;
+                assertEquals(PathCounter.INFINITE, actual);
+                assertEquals(PathCounter.INFINITE_COUNT, counter.countPathsThrough(source, sink, waypoints, false));
+            } else {
+                assertEquals(shorter, actual.longValue());
+            }
+        }
+        assertTrue(infinite > 0, "no graph had infinitely many paths");
+    }
+
+    // 2^80 paths through a chain of 80 diamonds, past a long
+    @Test
+    void overflowIsPromotedOrReduced() {
+        var builder = new CompiledGraph.Builder();
+        for (var i = 0; i < 80; i++) {
+            builder.addEdge("v" + i, "l" + i).addEdge("v" + i, "r" + i)
+                    .addEdge("l" + i, "v" + (i + 1)).addEdge("r" + i, "v" + (i + 1));
+        }
+        var counter = new PathCounter(builder.build(), 1_000_000_007L);
+        var exact = BigInteger.ONE.shiftLeft(80);
+        assertEquals(exact, counter.countPathsThrough("v0", "v80", List.of(), true, PathCounter.Overflow.BIG_INTEGER));
+        assertEquals(exact.mod(BigInteger.valueOf(1_000_000_007L)).longValue(),
+                counter.countPathsThrough("v0", "v80", List.of(), true, PathCounter.Overflow.MODULO));
+        assertEquals(exact.longValue(), counter.countPaths("v0", "v80"));
+    }
+
+    @Test
+    void cyclesAreReported() {
+        var builder = new CompiledGraph.Builder();
+        builder.addEdge("a", "b").addEdge("b", "c").addEdge("c", "b").addEdge("c", "d").addEdge("d", "d");
+        var graph = builder.build();
+        assertFalse(graph.isAcyclic());
+        assertEquals(List.of(List.of("b", "c"), List.of("d")), graph.cycles());
+
+        var components = StronglyConnectedComponents.of(graph);
+        assertEquals(3, components.count());
+        assertEquals(components.component(graph.id("b")), components.component(graph.id("c")));
+        assertTrue(components.isCyclic(components.component(graph.id("d"))));
+        assertFalse(components.isCyclic(components.component(graph.id("a"))));
+    }
+}
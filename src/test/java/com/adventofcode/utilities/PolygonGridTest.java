@@ -0,0 +1,133 @@
+package com.adventofcode.utilities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The prefix sum check against drawing the polygon tile by tile, on histogram shapes (a flat bottom and a stepped top)
+// that are also mirrored and transposed so every kind of corner turns up
+class PolygonGridTest {
+
+    // Vertices in path order: along the bottom, then back over the top from right to left
+    private static ArrayList<long[]> histogram(Random random) {
+        var columns = 1 + random.nextInt(6);
+        var xs = new long[columns + 1];
+        for (var i = 1; i <= columns; i++) {
+            xs[i] = xs[i - 1] + 1 + random.nextInt(4);
+        }
+        var heights = new long[columns];
+        for (var i = 0; i < columns; i++) {
+            do {
+                heights[i] = 1 + random.nextInt(8);
+            } while (i > 0 && heights[i] == heights[i - 1]);
+        }
+        var vertices = new ArrayList<long[]>();
+        vertices.add(new long[] {0, 0});
+        vertices.add(new long[] {xs[columns], 0});
+        for (var i = columns - 1; i >= 0; i--) {
+            vertices.add(new long[] {xs[i + 1], heights[i]});
+            vertices.add(new long[] {xs[i], heights[i]});
+        }
+        // The last vertex (0, first height) closes the path straight down to (0, 0)
+        return vertices;
+    }
+
+    private static boolean[][] draw(ArrayList<long[]> vertices, int size) {
+        // One tile of border all around so the flood fill can go round the shape
+        var wall = new boolean[size + 2][size + 2];
+        for (var i = 0; i < vertices.size(); i++) {
+            var a = vertices.get(i);
+            var b = vertices.get((i + 1) % vertices.size());
+            for (var x = Math.min(a[0], b[0]); x <= Math.max(a[0], b[0]); x++) {
+                for (var y = Math.min(a[1], b[1]); y <= Math.max(a[1], b[1]); y++) {
+                    wall[(int) x + 1][(int) y + 1] = true;
+                }
+            }
+        }
+        var outside = new boolean[size + 2][size + 2];
+        var stack = new ArrayList<int[]>();
+        stack.add(new int[] {0, 0});
+        outside[0][0] = true;
+        while (!stack.isEmpty()) {
+            var cell = stack.remove(stack.size() - 1);
+            for (var d : new int[][] {{1, 0}, {-1, 0}, {0, 1}, {0, -1}}) {
+                var x = cell[0] + d[0];
+                var y = cell[1] + d[1];
+                if (x >= 0 && y >= 0 && x < size + 2 && y < size + 2 && !outside[x][y] && !wall[x][y]) {
+                    outside[x][y] = true;
+                    stack.add(new int[] {x, y});
+                }
+            }
+        }
+        var inside = new boolean[size][size];
+        for (var x = 0; x < size; x++) {
+            for (var y = 0; y < size; y++) {
+                inside[x][y] = !outside[x + 1][y + 1];
+            }
+        }
+        return inside;
+    }
+
+    private static boolean containsRectangle(boolean[][] inside, long[] a, long[] b) {
+        for (var x = Math.min(a[0], b[0]); x <= Math.max(a[0], b[0]); x++) {
+            for (var y = Math.min(a[1], b[1]); y <= Math.max(a[1], b[1]); y++) {
+                if (!inside[(int) x][(int) y]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Test
+    void matchesDrawnPolygon() {
+        var random = new Random(9);
+        var size = 40;
+        for (var round = 0; round < 2000; round++) {
+            var vertices = histogram(random);
+            var flipX = random.nextBoolean();
+            var flipY = random.nextBoolean();
+            var transpose = random.nextBoolean();
+            var points = new PointStore(2);
+            for (var vertex : vertices) {
+                var x = flipX ? size - 1 - vertex[0] : vertex[0];
+                var y = flipY ? size - 1 - vertex[1] : vertex[1];
+                vertex[0] = transpose ? y : x;
+                vertex[1] = transpose ? x : y;
+                points.add(vertex[0], vertex[1]);
+            }
+
+            var inside = draw(vertices, size);
+            var grid = new PolygonGrid(points);
+            for (var a = 0; a < points.size(); a++) {
+                for (var b = a + 1; b < points.size(); b++) {
+                    assertEquals(containsRectangle(inside, vertices.get(a), vertices.get(b)), grid.containsRectangle(a, b),
+                            "rectangle between vertices " + a + " and " + b + " in round " + round);
+                }
+            }
+        }
+    }
+
+    // The example of day 9, the largest rectangle inside has an area of 24
+    @Test
+    void example() {
+        var points = new PointStore(2);
+        long[][] vertices = {{7, 1}, {11, 1}, {11, 7}, {9, 7}, {9, 5}, {2, 5}, {2, 3}, {7, 3}};
+        for (var vertex : vertices) {
+            points.add(vertex[0], vertex[1]);
+        }
+        var grid = new PolygonGrid(points);
+        var best = 0L;
+        for (var a = 0; a < points.size(); a++) {
+            for (var b = a + 1; b < points.size(); b++) {
+                if (grid.containsRectangle(a, b)) {
+                    best = Math.max(best, (Math.abs(points.getX(a) - points.getX(b)) + 1) * (Math.abs(points.getY(a) - points.getY(b)) + 1));
+                }
+            }
+        }
+        assertEquals(24, best);
+    }
+}
@@ -0,0 +1,72 @@
+package com.adventofcode.utilities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The index against scanning every point it holds. A removed point stays removed even if it is added again, and a
+// point added twice counts twice in size()
+class SegmentCollisionIndexTest {
+
+    @Test
+    void matchesScanningThePoints() {
+        var random = new Random(13);
+        for (var round = 0; round < 300; round++) {
+            var range = 2 + random.nextInt(20);
+            var builder = new SegmentCollisionIndex.Builder();
+            var added = new ArrayList<Long>();
+            var removed = new HashSet<Long>();
+            for (var step = random.nextInt(40); step > 0; step--) {
+                var x = random.nextInt(range);
+                var y = random.nextInt(range);
+                if (random.nextInt(4) == 0) {
+                    builder.remove(x, y);
+                    removed.add((long) x * range + y);
+                } else {
+                    builder.add(x, y);
+                    added.add((long) x * range + y);
+                }
+            }
+            added.removeAll(removed);
+            var points = new HashSet<>(added);
+            var index = builder.build();
+            assertEquals(added.size(), index.size());
+
+            for (var query = 0; query < 200; query++) {
+                var line = random.nextInt(range);
+                var from = random.nextInt(range);
+                var to = from + random.nextInt(range - from);
+                var column = false;
+                var row = false;
+                for (var other = from; other <= to; other++) {
+                    column |= points.contains((long) line * range + other);
+                    row |= points.contains((long) other * range + line);
+                }
+                assertEquals(column, index.collidesWithColumn(line, from, to));
+                assertEquals(row, index.collidesWithRow(line, from, to));
+            }
+        }
+    }
+
+    // The outside perimeter of day 9 removes path tiles at inside bends, and the last side of the path adds tiles
+    // next to the first corner again after that corner's removal, so a removal has to win whatever the order
+    @Test
+    void reAddedPointStaysRemoved() {
+        var index = new SegmentCollisionIndex.Builder()
+                .add(1, 1)
+                .add(1, 3)
+                .remove(1, 1)
+                .add(1, 1)
+                .build();
+        assertEquals(1, index.size());
+        assertFalse(index.collidesWithColumn(1, 0, 2));
+        assertFalse(index.collidesWithRow(1, 0, 5));
+        assertTrue(index.collidesWithColumn(1, 0, 3));
+    }
+}
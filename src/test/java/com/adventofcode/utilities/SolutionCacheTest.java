@@ -0,0 +1,53 @@
+package com.adventofcode.utilities;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SolutionCacheTest {
+
+    @Test
+    void keysCompareByContent() {
+        var cache = new SolutionCache(4);
+        cache.put(new long[] {1, 2, 3}, 42);
+        assertEquals(42, cache.get(new long[] {1, 2, 3}));
+        assertEquals(SolutionCache.MISSING, cache.get(new long[] {1, 2}));
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    void leastRecentlyUsedIsDropped() {
+        var cache = new SolutionCache(2);
+        cache.put(new long[] {1}, 1);
+        cache.put(new long[] {2}, 2);
+        // Reading 1 makes 2 the least recently used
+        cache.get(new long[] {1});
+        cache.put(new long[] {3}, 3);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.get(new long[] {1}));
+        assertEquals(SolutionCache.MISSING, cache.get(new long[] {2}));
+        assertEquals(3, cache.get(new long[] {3}));
+    }
+
+    @Test
+    void zeroCapacityKeepsNothing() {
+        var cache = new SolutionCache(0);
+        cache.put(new long[] {1}, 1);
+        assertEquals(0, cache.size());
+        assertEquals(SolutionCache.MISSING, cache.get(new long[] {1}));
+        assertThrows(IllegalArgumentException.class, () -> new SolutionCache(-1));
+    }
+
+    @Test
+    void clearDropsEntriesAndCounts() {
+        var cache = new SolutionCache(2);
+        cache.put(new long[] {1}, 1);
+        cache.get(new long[] {1});
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.hits());
+        assertEquals(SolutionCache.MISSING, cache.get(new long[] {1}));
+    }
+}